@@ -0,0 +1,83 @@
+package interfaces;
+
+@SuppressWarnings("unused")
+public class AutopilotConfigBufferReader {
+    private static byte[] readByteArray(java.nio.ByteBuffer buffer, byte[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new byte[length]; }
+        buffer.get(array);
+        return array;
+    }
+    private static float[] readFloatArray(java.nio.ByteBuffer buffer, float[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new float[length]; }
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + 4 * length);
+        return array;
+    }
+    private static String readUTF(java.nio.ByteBuffer buffer) {
+        int end = (buffer.getShort() & 0xffff) + buffer.position();
+        StringBuilder builder = new StringBuilder(end - buffer.position());
+        while (buffer.position() < end) {
+            int c = buffer.get() & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get() & 0x3f) << 6 | buffer.get() & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get() & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    public static AutopilotConfig read(java.nio.ByteBuffer buffer) {
+        final String droneID = readUTF(buffer);
+        final float gravity = buffer.getFloat();
+        final float wingX = buffer.getFloat();
+        final float tailSize = buffer.getFloat();
+        final float wheelY = buffer.getFloat();
+        final float frontWheelZ = buffer.getFloat();
+        final float rearWheelZ = buffer.getFloat();
+        final float rearWheelX = buffer.getFloat();
+        final float tyreSlope = buffer.getFloat();
+        final float dampSlope = buffer.getFloat();
+        final float tyreRadius = buffer.getFloat();
+        final float rMax = buffer.getFloat();
+        final float fcMax = buffer.getFloat();
+        final float engineMass = buffer.getFloat();
+        final float wingMass = buffer.getFloat();
+        final float tailMass = buffer.getFloat();
+        final float maxThrust = buffer.getFloat();
+        final float maxAOA = buffer.getFloat();
+        final float wingLiftSlope = buffer.getFloat();
+        final float horStabLiftSlope = buffer.getFloat();
+        final float verStabLiftSlope = buffer.getFloat();
+        final float horizontalAngleOfView = buffer.getFloat();
+        final float verticalAngleOfView = buffer.getFloat();
+        final int nbColumns = buffer.getInt();
+        final int nbRows = buffer.getInt();
+        return new AutopilotConfig() {
+            public String getDroneID() { return droneID; }
+            public float getGravity() { return gravity; }
+            public float getWingX() { return wingX; }
+            public float getTailSize() { return tailSize; }
+            public float getWheelY() { return wheelY; }
+            public float getFrontWheelZ() { return frontWheelZ; }
+            public float getRearWheelZ() { return rearWheelZ; }
+            public float getRearWheelX() { return rearWheelX; }
+            public float getTyreSlope() { return tyreSlope; }
+            public float getDampSlope() { return dampSlope; }
+            public float getTyreRadius() { return tyreRadius; }
+            public float getRMax() { return rMax; }
+            public float getFcMax() { return fcMax; }
+            public float getEngineMass() { return engineMass; }
+            public float getWingMass() { return wingMass; }
+            public float getTailMass() { return tailMass; }
+            public float getMaxThrust() { return maxThrust; }
+            public float getMaxAOA() { return maxAOA; }
+            public float getWingLiftSlope() { return wingLiftSlope; }
+            public float getHorStabLiftSlope() { return horStabLiftSlope; }
+            public float getVerStabLiftSlope() { return verStabLiftSlope; }
+            public float getHorizontalAngleOfView() { return horizontalAngleOfView; }
+            public float getVerticalAngleOfView() { return verticalAngleOfView; }
+            public int getNbColumns() { return nbColumns; }
+            public int getNbRows() { return nbRows; }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package interfaces;
+
+@SuppressWarnings("unused")
+public class AutopilotConfigBufferWriter {
+    private static int length(byte[] array) { return array == null ? 0 : array.length; }
+    private static int length(float[] array) { return array == null ? 0 : array.length; }
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 0x01 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return length;
+    }
+    private static void writeUTF(java.nio.ByteBuffer buffer, String value) {
+        buffer.putShort((short) utfLength(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x01 && c < 0x80) { buffer.put((byte) c); }
+            else if (c < 0x800) { buffer.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f)); }
+            else { buffer.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f)).put((byte) (0x80 | c & 0x3f)); }
+        }
+    }
+    private static void writeByteArray(java.nio.ByteBuffer buffer, byte[] array) {
+        buffer.putInt(length(array));
+        if (array != null) { buffer.put(array); }
+    }
+    private static void writeFloatArray(java.nio.ByteBuffer buffer, float[] array) {
+        buffer.putInt(length(array));
+        if (array != null) {
+            buffer.asFloatBuffer().put(array);
+            buffer.position(buffer.position() + 4 * array.length);
+        }
+    }
+    /** The number of bytes write puts in the buffer, a null array is written as an empty one. */
+    public static int size(AutopilotConfig value) {
+        return 96 + 2 + utfLength(value.getDroneID());
+    }
+    public static void write(java.nio.ByteBuffer buffer, AutopilotConfig value) {
+        writeUTF(buffer, value.getDroneID());
+        buffer.putFloat(value.getGravity());
+        buffer.putFloat(value.getWingX());
+        buffer.putFloat(value.getTailSize());
+        buffer.putFloat(value.getWheelY());
+        buffer.putFloat(value.getFrontWheelZ());
+        buffer.putFloat(value.getRearWheelZ());
+        buffer.putFloat(value.getRearWheelX());
+        buffer.putFloat(value.getTyreSlope());
+        buffer.putFloat(value.getDampSlope());
+        buffer.putFloat(value.getTyreRadius());
+        buffer.putFloat(value.getRMax());
+        buffer.putFloat(value.getFcMax());
+        buffer.putFloat(value.getEngineMass());
+        buffer.putFloat(value.getWingMass());
+        buffer.putFloat(value.getTailMass());
+        buffer.putFloat(value.getMaxThrust());
+        buffer.putFloat(value.getMaxAOA());
+        buffer.putFloat(value.getWingLiftSlope());
+        buffer.putFloat(value.getHorStabLiftSlope());
+        buffer.putFloat(value.getVerStabLiftSlope());
+        buffer.putFloat(value.getHorizontalAngleOfView());
+        buffer.putFloat(value.getVerticalAngleOfView());
+        buffer.putInt(value.getNbColumns());
+        buffer.putInt(value.getNbRows());
+    }
+}
@@ -0,0 +1,96 @@
+package interfaces;
+
+/**
+ * An encoded AutopilotConfig in a buffer, in the format of AutopilotConfigBufferWriter. The fields are read from the buffer
+ * when they are asked for, arrays are read once per wrap into the arrays of the previous wrap if they have
+ * the same length. The view is only valid as long as the buffer is not changed.
+ */
+@SuppressWarnings("unused")
+public class AutopilotConfigView implements AutopilotConfig {
+    private java.nio.ByteBuffer buffer;
+    private int droneIDOffset, gravityOffset, wingXOffset, tailSizeOffset, wheelYOffset, frontWheelZOffset, rearWheelZOffset, rearWheelXOffset, tyreSlopeOffset, dampSlopeOffset, tyreRadiusOffset, rMaxOffset, fcMaxOffset, engineMassOffset, wingMassOffset, tailMassOffset, maxThrustOffset, maxAOAOffset, wingLiftSlopeOffset, horStabLiftSlopeOffset, verStabLiftSlopeOffset, horizontalAngleOfViewOffset, verticalAngleOfViewOffset, nbColumnsOffset, nbRowsOffset, end;
+    private byte[] readByteArray(int offset, byte[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new byte[length]; }
+        int position = buffer.position();
+        buffer.position(offset + 4);
+        buffer.get(array);
+        buffer.position(position);
+        return array;
+    }
+    private float[] readFloatArray(int offset, float[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new float[length]; }
+        for (int i = 0; i < length; i++) { array[i] = buffer.getFloat(offset + 4 + 4 * i); }
+        return array;
+    }
+    private String readUTF(int offset) {
+        int index = offset + 2, end = index + (buffer.getShort(offset) & 0xffff);
+        StringBuilder builder = new StringBuilder(end - index);
+        while (index < end) {
+            int c = buffer.get(index++) & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get(index++) & 0x3f) << 6 | buffer.get(index++) & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get(index++) & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    /** Views the value that starts at the given offset, the position of the buffer is not used. */
+    public AutopilotConfigView wrap(java.nio.ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        droneIDOffset = offset;
+        gravityOffset = droneIDOffset + 2 + (buffer.getShort(droneIDOffset) & 0xffff);
+        wingXOffset = gravityOffset + 4;
+        tailSizeOffset = wingXOffset + 4;
+        wheelYOffset = tailSizeOffset + 4;
+        frontWheelZOffset = wheelYOffset + 4;
+        rearWheelZOffset = frontWheelZOffset + 4;
+        rearWheelXOffset = rearWheelZOffset + 4;
+        tyreSlopeOffset = rearWheelXOffset + 4;
+        dampSlopeOffset = tyreSlopeOffset + 4;
+        tyreRadiusOffset = dampSlopeOffset + 4;
+        rMaxOffset = tyreRadiusOffset + 4;
+        fcMaxOffset = rMaxOffset + 4;
+        engineMassOffset = fcMaxOffset + 4;
+        wingMassOffset = engineMassOffset + 4;
+        tailMassOffset = wingMassOffset + 4;
+        maxThrustOffset = tailMassOffset + 4;
+        maxAOAOffset = maxThrustOffset + 4;
+        wingLiftSlopeOffset = maxAOAOffset + 4;
+        horStabLiftSlopeOffset = wingLiftSlopeOffset + 4;
+        verStabLiftSlopeOffset = horStabLiftSlopeOffset + 4;
+        horizontalAngleOfViewOffset = verStabLiftSlopeOffset + 4;
+        verticalAngleOfViewOffset = horizontalAngleOfViewOffset + 4;
+        nbColumnsOffset = verticalAngleOfViewOffset + 4;
+        nbRowsOffset = nbColumnsOffset + 4;
+        end = nbRowsOffset + 4;
+        return this;
+    }
+    /** The number of bytes of the value in the buffer. */
+    public int encodedSize() { return end - droneIDOffset; }
+    public String getDroneID() { return readUTF(droneIDOffset); }
+    public float getGravity() { return buffer.getFloat(gravityOffset); }
+    public float getWingX() { return buffer.getFloat(wingXOffset); }
+    public float getTailSize() { return buffer.getFloat(tailSizeOffset); }
+    public float getWheelY() { return buffer.getFloat(wheelYOffset); }
+    public float getFrontWheelZ() { return buffer.getFloat(frontWheelZOffset); }
+    public float getRearWheelZ() { return buffer.getFloat(rearWheelZOffset); }
+    public float getRearWheelX() { return buffer.getFloat(rearWheelXOffset); }
+    public float getTyreSlope() { return buffer.getFloat(tyreSlopeOffset); }
+    public float getDampSlope() { return buffer.getFloat(dampSlopeOffset); }
+    public float getTyreRadius() { return buffer.getFloat(tyreRadiusOffset); }
+    public float getRMax() { return buffer.getFloat(rMaxOffset); }
+    public float getFcMax() { return buffer.getFloat(fcMaxOffset); }
+    public float getEngineMass() { return buffer.getFloat(engineMassOffset); }
+    public float getWingMass() { return buffer.getFloat(wingMassOffset); }
+    public float getTailMass() { return buffer.getFloat(tailMassOffset); }
+    public float getMaxThrust() { return buffer.getFloat(maxThrustOffset); }
+    public float getMaxAOA() { return buffer.getFloat(maxAOAOffset); }
+    public float getWingLiftSlope() { return buffer.getFloat(wingLiftSlopeOffset); }
+    public float getHorStabLiftSlope() { return buffer.getFloat(horStabLiftSlopeOffset); }
+    public float getVerStabLiftSlope() { return buffer.getFloat(verStabLiftSlopeOffset); }
+    public float getHorizontalAngleOfView() { return buffer.getFloat(horizontalAngleOfViewOffset); }
+    public float getVerticalAngleOfView() { return buffer.getFloat(verticalAngleOfViewOffset); }
+    public int getNbColumns() { return buffer.getInt(nbColumnsOffset); }
+    public int getNbRows() { return buffer.getInt(nbRowsOffset); }
+}
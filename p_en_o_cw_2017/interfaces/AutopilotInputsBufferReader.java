@@ -0,0 +1,53 @@
+package interfaces;
+
+@SuppressWarnings("unused")
+public class AutopilotInputsBufferReader {
+    private static byte[] readByteArray(java.nio.ByteBuffer buffer, byte[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new byte[length]; }
+        buffer.get(array);
+        return array;
+    }
+    private static float[] readFloatArray(java.nio.ByteBuffer buffer, float[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new float[length]; }
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + 4 * length);
+        return array;
+    }
+    private static String readUTF(java.nio.ByteBuffer buffer) {
+        int end = (buffer.getShort() & 0xffff) + buffer.position();
+        StringBuilder builder = new StringBuilder(end - buffer.position());
+        while (buffer.position() < end) {
+            int c = buffer.get() & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get() & 0x3f) << 6 | buffer.get() & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get() & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    public static AutopilotInputs read(java.nio.ByteBuffer buffer) {
+        return read(buffer, null);
+    }
+    /** The arrays are read into the given arrays if they have the right length. */
+    public static AutopilotInputs read(java.nio.ByteBuffer buffer, byte[] destImage) {
+        final byte[] image = readByteArray(buffer, destImage);
+        final float x = buffer.getFloat();
+        final float y = buffer.getFloat();
+        final float z = buffer.getFloat();
+        final float heading = buffer.getFloat();
+        final float pitch = buffer.getFloat();
+        final float roll = buffer.getFloat();
+        final float elapsedTime = buffer.getFloat();
+        return new AutopilotInputs() {
+            public byte[] getImage() { return image; }
+            public float getX() { return x; }
+            public float getY() { return y; }
+            public float getZ() { return z; }
+            public float getHeading() { return heading; }
+            public float getPitch() { return pitch; }
+            public float getRoll() { return roll; }
+            public float getElapsedTime() { return elapsedTime; }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package interfaces;
+
+@SuppressWarnings("unused")
+public class AutopilotInputsBufferWriter {
+    private static int length(byte[] array) { return array == null ? 0 : array.length; }
+    private static int length(float[] array) { return array == null ? 0 : array.length; }
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 0x01 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return length;
+    }
+    private static void writeUTF(java.nio.ByteBuffer buffer, String value) {
+        buffer.putShort((short) utfLength(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x01 && c < 0x80) { buffer.put((byte) c); }
+            else if (c < 0x800) { buffer.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f)); }
+            else { buffer.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f)).put((byte) (0x80 | c & 0x3f)); }
+        }
+    }
+    private static void writeByteArray(java.nio.ByteBuffer buffer, byte[] array) {
+        buffer.putInt(length(array));
+        if (array != null) { buffer.put(array); }
+    }
+    private static void writeFloatArray(java.nio.ByteBuffer buffer, float[] array) {
+        buffer.putInt(length(array));
+        if (array != null) {
+            buffer.asFloatBuffer().put(array);
+            buffer.position(buffer.position() + 4 * array.length);
+        }
+    }
+    /** The number of bytes write puts in the buffer, a null array is written as an empty one. */
+    public static int size(AutopilotInputs value) {
+        return 28 + 4 + length(value.getImage());
+    }
+    public static void write(java.nio.ByteBuffer buffer, AutopilotInputs value) {
+        writeByteArray(buffer, value.getImage());
+        buffer.putFloat(value.getX());
+        buffer.putFloat(value.getY());
+        buffer.putFloat(value.getZ());
+        buffer.putFloat(value.getHeading());
+        buffer.putFloat(value.getPitch());
+        buffer.putFloat(value.getRoll());
+        buffer.putFloat(value.getElapsedTime());
+    }
+}
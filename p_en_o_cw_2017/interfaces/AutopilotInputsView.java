@@ -0,0 +1,68 @@
+package interfaces;
+
+/**
+ * An encoded AutopilotInputs in a buffer, in the format of AutopilotInputsBufferWriter. The fields are read from the buffer
+ * when they are asked for, arrays are read once per wrap into the arrays of the previous wrap if they have
+ * the same length. The view is only valid as long as the buffer is not changed.
+ */
+@SuppressWarnings("unused")
+public class AutopilotInputsView implements AutopilotInputs {
+    private java.nio.ByteBuffer buffer;
+    private int imageOffset, xOffset, yOffset, zOffset, headingOffset, pitchOffset, rollOffset, elapsedTimeOffset, end;
+    private byte[] image;
+    private boolean imageRead;
+    private byte[] readByteArray(int offset, byte[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new byte[length]; }
+        int position = buffer.position();
+        buffer.position(offset + 4);
+        buffer.get(array);
+        buffer.position(position);
+        return array;
+    }
+    private float[] readFloatArray(int offset, float[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new float[length]; }
+        for (int i = 0; i < length; i++) { array[i] = buffer.getFloat(offset + 4 + 4 * i); }
+        return array;
+    }
+    private String readUTF(int offset) {
+        int index = offset + 2, end = index + (buffer.getShort(offset) & 0xffff);
+        StringBuilder builder = new StringBuilder(end - index);
+        while (index < end) {
+            int c = buffer.get(index++) & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get(index++) & 0x3f) << 6 | buffer.get(index++) & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get(index++) & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    /** Views the value that starts at the given offset, the position of the buffer is not used. */
+    public AutopilotInputsView wrap(java.nio.ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        imageOffset = offset;
+        xOffset = imageOffset + 4 + buffer.getInt(imageOffset);
+        yOffset = xOffset + 4;
+        zOffset = yOffset + 4;
+        headingOffset = zOffset + 4;
+        pitchOffset = headingOffset + 4;
+        rollOffset = pitchOffset + 4;
+        elapsedTimeOffset = rollOffset + 4;
+        end = elapsedTimeOffset + 4;
+        imageRead = false;
+        return this;
+    }
+    /** The number of bytes of the value in the buffer. */
+    public int encodedSize() { return end - imageOffset; }
+    public byte[] getImage() {
+        if (!imageRead) { image = readByteArray(imageOffset, image); imageRead = true; }
+        return image;
+    }
+    public float getX() { return buffer.getFloat(xOffset); }
+    public float getY() { return buffer.getFloat(yOffset); }
+    public float getZ() { return buffer.getFloat(zOffset); }
+    public float getHeading() { return buffer.getFloat(headingOffset); }
+    public float getPitch() { return buffer.getFloat(pitchOffset); }
+    public float getRoll() { return buffer.getFloat(rollOffset); }
+    public float getElapsedTime() { return buffer.getFloat(elapsedTimeOffset); }
+}
@@ -0,0 +1,49 @@
+package interfaces;
+
+@SuppressWarnings("unused")
+public class AutopilotOutputsBufferReader {
+    private static byte[] readByteArray(java.nio.ByteBuffer buffer, byte[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new byte[length]; }
+        buffer.get(array);
+        return array;
+    }
+    private static float[] readFloatArray(java.nio.ByteBuffer buffer, float[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new float[length]; }
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + 4 * length);
+        return array;
+    }
+    private static String readUTF(java.nio.ByteBuffer buffer) {
+        int end = (buffer.getShort() & 0xffff) + buffer.position();
+        StringBuilder builder = new StringBuilder(end - buffer.position());
+        while (buffer.position() < end) {
+            int c = buffer.get() & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get() & 0x3f) << 6 | buffer.get() & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get() & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    public static AutopilotOutputs read(java.nio.ByteBuffer buffer) {
+        final float thrust = buffer.getFloat();
+        final float leftWingInclination = buffer.getFloat();
+        final float rightWingInclination = buffer.getFloat();
+        final float horStabInclination = buffer.getFloat();
+        final float verStabInclination = buffer.getFloat();
+        final float frontBrakeForce = buffer.getFloat();
+        final float leftBrakeForce = buffer.getFloat();
+        final float rightBrakeForce = buffer.getFloat();
+        return new AutopilotOutputs() {
+            public float getThrust() { return thrust; }
+            public float getLeftWingInclination() { return leftWingInclination; }
+            public float getRightWingInclination() { return rightWingInclination; }
+            public float getHorStabInclination() { return horStabInclination; }
+            public float getVerStabInclination() { return verStabInclination; }
+            public float getFrontBrakeForce() { return frontBrakeForce; }
+            public float getLeftBrakeForce() { return leftBrakeForce; }
+            public float getRightBrakeForce() { return rightBrakeForce; }
+        };
+    }
+}
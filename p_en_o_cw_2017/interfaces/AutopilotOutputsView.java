@@ -0,0 +1,62 @@
+package interfaces;
+
+/**
+ * An encoded AutopilotOutputs in a buffer, in the format of AutopilotOutputsBufferWriter. The fields are read from the buffer
+ * when they are asked for, arrays are read once per wrap into the arrays of the previous wrap if they have
+ * the same length. The view is only valid as long as the buffer is not changed.
+ */
+@SuppressWarnings("unused")
+public class AutopilotOutputsView implements AutopilotOutputs {
+    private java.nio.ByteBuffer buffer;
+    private int thrustOffset, leftWingInclinationOffset, rightWingInclinationOffset, horStabInclinationOffset, verStabInclinationOffset, frontBrakeForceOffset, leftBrakeForceOffset, rightBrakeForceOffset, end;
+    private byte[] readByteArray(int offset, byte[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new byte[length]; }
+        int position = buffer.position();
+        buffer.position(offset + 4);
+        buffer.get(array);
+        buffer.position(position);
+        return array;
+    }
+    private float[] readFloatArray(int offset, float[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new float[length]; }
+        for (int i = 0; i < length; i++) { array[i] = buffer.getFloat(offset + 4 + 4 * i); }
+        return array;
+    }
+    private String readUTF(int offset) {
+        int index = offset + 2, end = index + (buffer.getShort(offset) & 0xffff);
+        StringBuilder builder = new StringBuilder(end - index);
+        while (index < end) {
+            int c = buffer.get(index++) & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get(index++) & 0x3f) << 6 | buffer.get(index++) & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get(index++) & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    /** Views the value that starts at the given offset, the position of the buffer is not used. */
+    public AutopilotOutputsView wrap(java.nio.ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        thrustOffset = offset;
+        leftWingInclinationOffset = thrustOffset + 4;
+        rightWingInclinationOffset = leftWingInclinationOffset + 4;
+        horStabInclinationOffset = rightWingInclinationOffset + 4;
+        verStabInclinationOffset = horStabInclinationOffset + 4;
+        frontBrakeForceOffset = verStabInclinationOffset + 4;
+        leftBrakeForceOffset = frontBrakeForceOffset + 4;
+        rightBrakeForceOffset = leftBrakeForceOffset + 4;
+        end = rightBrakeForceOffset + 4;
+        return this;
+    }
+    /** The number of bytes of the value in the buffer. */
+    public int encodedSize() { return end - thrustOffset; }
+    public float getThrust() { return buffer.getFloat(thrustOffset); }
+    public float getLeftWingInclination() { return buffer.getFloat(leftWingInclinationOffset); }
+    public float getRightWingInclination() { return buffer.getFloat(rightWingInclinationOffset); }
+    public float getHorStabInclination() { return buffer.getFloat(horStabInclinationOffset); }
+    public float getVerStabInclination() { return buffer.getFloat(verStabInclinationOffset); }
+    public float getFrontBrakeForce() { return buffer.getFloat(frontBrakeForceOffset); }
+    public float getLeftBrakeForce() { return buffer.getFloat(leftBrakeForceOffset); }
+    public float getRightBrakeForce() { return buffer.getFloat(rightBrakeForceOffset); }
+}
@@ -24,14 +24,29 @@ enum FieldType {
 	STRING("String") {
 		public String getReaderCall() { return "stream.readUTF()"; }
 		public String getWriterCall() { return "stream.writeUTF("; }
+		public String getBufferReaderCall(String destination) { return "readUTF(buffer)"; }
+		public String getBufferWriterCall() { return "writeUTF(buffer, "; }
+		public String getBufferSize(String value) { return "2 + utfLength(" + value + ")"; }
+		public String getViewSize(String offset) { return "2 + (buffer.getShort(" + offset + ") & 0xffff)"; }
+		public String getViewCall(String offset, String cache) { return "readUTF(" + offset + ")"; }
 	},
 	BYTE_ARRAY("byte[]") {
 		public String getReaderCall() { return "readByteArray(stream)"; }
 		public String getWriterCall() { return "writeByteArray(stream, "; }
+		public String getBufferReaderCall(String destination) { return "readByteArray(buffer, " + destination + ")"; }
+		public String getBufferWriterCall() { return "writeByteArray(buffer, "; }
+		public String getBufferSize(String value) { return "4 + length(" + value + ")"; }
+		public String getViewSize(String offset) { return "4 + buffer.getInt(" + offset + ")"; }
+		public String getViewCall(String offset, String cache) { return "readByteArray(" + offset + ", " + cache + ")"; }
 	},
 	FLOAT_ARRAY("float[]") {
 		public String getReaderCall() { return "readFloatArray(stream)"; }
 		public String getWriterCall() { return "writeFloatArray(stream, "; }
+		public String getBufferReaderCall(String destination) { return "readFloatArray(buffer, " + destination + ")"; }
+		public String getBufferWriterCall() { return "writeFloatArray(buffer, "; }
+		public String getBufferSize(String value) { return "4 + 4 * length(" + value + ")"; }
+		public String getViewSize(String offset) { return "4 + 4 * buffer.getInt(" + offset + ")"; }
+		public String getViewCall(String offset, String cache) { return "readFloatArray(" + offset + ", " + cache + ")"; }
 	};
 
 	public final String name;
@@ -47,6 +62,40 @@ enum FieldType {
 	public String getWriterCall() {
 		return "stream.write" + Util.capitalize(name) + "(";
 	}
+	
+	/**
+	 * @param destination Array to read into if it has the right length, only used by the array types
+	 */
+	public String getBufferReaderCall(String destination) {
+		return "buffer.get" + Util.capitalize(name) + "()";
+	}
+	
+	public String getBufferWriterCall() {
+		return "buffer.put" + Util.capitalize(name) + "(";
+	}
+	
+	public String getBufferSize(String value) {
+		return "4";
+	}
+	
+	/**
+	 * @return The size of the field that starts at the given offset in the buffer of a view
+	 */
+	public String getViewSize(String offset) {
+		return "4";
+	}
+	
+	/**
+	 * @param cache The array of the previous value, only used by the array types
+	 * @return Reads the field that starts at the given offset in the buffer of a view
+	 */
+	public String getViewCall(String offset, String cache) {
+		return "buffer.get" + Util.capitalize(name) + "(" + offset + ")";
+	}
+	
+	public boolean isArray() {
+		return this == BYTE_ARRAY || this == FLOAT_ARRAY;
+	}
 }
 
 class Field {
@@ -61,6 +110,14 @@ class Field {
 	public String getGetterName() {
 		return "get" + Util.capitalize(name);
 	}
+	
+	public String getDestinationName() {
+		return "dest" + Util.capitalize(name);
+	}
+	
+	public String getOffsetName() {
+		return name + "Offset";
+	}
 }
 
 class Datatype {
@@ -191,15 +248,29 @@ class Parser extends StreamTokenizer {
 	}
 }
 
+/**
+ * Generates for each datatype an interface and codecs for it:
+ * - stream: a *Reader and *Writer on java.io.DataInputStream and DataOutputStream
+ * - buffer: a *BufferReader and *BufferWriter on java.nio.ByteBuffer, in the same format, with bulk reads
+ *   and writes of the arrays and reads into arrays of the caller, and a *View that implements the interface
+ *   on an encoded value in a ByteBuffer and only decodes the fields that are asked for
+ * 
+ * Usage: CodeGenerator datatypesFile [targetDir] [stream|buffer|all]
+ */
 public class CodeGenerator {
 	
 	public static void main(String[] args) throws IOException {
 		String compilationUnitPath = args[0];
 		File targetDir = new File(args.length < 2 ? "." : args[1]);
-		generateJavaSourceFiles(targetDir, compilationUnitPath);
+		String backend = args.length < 3 ? "stream" : args[2];
+		generateJavaSourceFiles(targetDir, compilationUnitPath, !backend.equals("buffer"), !backend.equals("stream"));
 	}
 	
 	public static void generateJavaSourceFiles(File targetDir, String compilationUnitPath) throws IOException {
+		generateJavaSourceFiles(targetDir, compilationUnitPath, true, false);
+	}
+	
+	public static void generateJavaSourceFiles(File targetDir, String compilationUnitPath, boolean stream, boolean buffer) throws IOException {
 		CompilationUnit compilationUnit;
 		try (
 				FileReader fis = new FileReader(compilationUnitPath);
@@ -207,13 +278,17 @@ public class CodeGenerator {
 			) {
 			compilationUnit = new Parser(br).parseCompilationUnit();
 		}
-		generateJavaSourceFiles(targetDir, compilationUnit);
+		generateJavaSourceFiles(targetDir, compilationUnit, stream, buffer);
 	}
 	
 	public static void generateJavaSourceFiles(File targetDir, CompilationUnit compilationUnit) throws IOException {
+		generateJavaSourceFiles(targetDir, compilationUnit, true, false);
+	}
+	
+	public static void generateJavaSourceFiles(File targetDir, CompilationUnit compilationUnit, boolean stream, boolean buffer) throws IOException {
 		CodeGenerator generator = new CodeGenerator(targetDir, compilationUnit.packageName);
 		for (Datatype datatype : compilationUnit.datatypes) {
-			generator.generateJavaSourceFiles(datatype);
+			generator.generateJavaSourceFiles(datatype, stream, buffer);
 		}
 	}
 	
@@ -226,9 +301,20 @@ public class CodeGenerator {
 	}
 	
 	void generateJavaSourceFiles(Datatype datatype) throws IOException {
+		generateJavaSourceFiles(datatype, true, false);
+	}
+	
+	void generateJavaSourceFiles(Datatype datatype, boolean stream, boolean buffer) throws IOException {
 		generateInterface(datatype);
-		generateReader(datatype);
-		generateWriter(datatype);
+		if (stream) {
+			generateReader(datatype);
+			generateWriter(datatype);
+		}
+		if (buffer) {
+			generateBufferReader(datatype);
+			generateBufferWriter(datatype);
+			generateView(datatype);
+		}
 	}
 
 	void generateInterface(Datatype datatype) throws IOException {
@@ -301,4 +387,217 @@ public class CodeGenerator {
 					"}%n");
 		}
 	}
+	
+	void generateBufferReader(Datatype datatype) throws IOException {
+		File file = new File(targetDir, datatype.name+"BufferReader.java");
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.format("package %s;%n%n", packageName);
+			writer.format("@SuppressWarnings(\"unused\")%n");
+			writer.format("public class %sBufferReader {%n", datatype.name);
+			writer.format(
+					"    private static byte[] readByteArray(java.nio.ByteBuffer buffer, byte[] array) {%n"+
+					"        int length = buffer.getInt();%n"+
+					"        if (array == null || array.length != length) { array = new byte[length]; }%n"+
+					"        buffer.get(array);%n"+
+					"        return array;%n"+
+					"    }%n");
+			writer.format(
+					"    private static float[] readFloatArray(java.nio.ByteBuffer buffer, float[] array) {%n"+
+					"        int length = buffer.getInt();%n"+
+					"        if (array == null || array.length != length) { array = new float[length]; }%n"+
+					"        buffer.asFloatBuffer().get(array);%n"+
+					"        buffer.position(buffer.position() + 4 * length);%n"+
+					"        return array;%n"+
+					"    }%n");
+			writer.format(
+					"    private static String readUTF(java.nio.ByteBuffer buffer) {%n"+
+					"        int end = (buffer.getShort() & 0xffff) + buffer.position();%n"+
+					"        StringBuilder builder = new StringBuilder(end - buffer.position());%n"+
+					"        while (buffer.position() < end) {%n"+
+					"            int c = buffer.get() & 0xff;%n"+
+					"            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get() & 0x3f) << 6 | buffer.get() & 0x3f; }%n"+
+					"            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get() & 0x3f; }%n"+
+					"            builder.append((char) c);%n"+
+					"        }%n"+
+					"        return builder.toString();%n"+
+					"    }%n");
+			
+			StringBuilder destinations = new StringBuilder();
+			StringBuilder nulls = new StringBuilder();
+			for (Field field : datatype.fields) {
+				if (field.type.isArray()) {
+					destinations.append(", ").append(field.type.name).append(' ').append(field.getDestinationName());
+					nulls.append(", null");
+				}
+			}
+			if (destinations.length() > 0) {
+				writer.format("    public static %s read(java.nio.ByteBuffer buffer) {%n", datatype.name);
+				writer.format("        return read(buffer%s);%n", nulls);
+				writer.format("    }%n");
+				writer.format("    /** The arrays are read into the given arrays if they have the right length. */%n");
+			}
+			writer.format("    public static %s read(java.nio.ByteBuffer buffer%s) {%n", datatype.name, destinations);
+			for (Field field : datatype.fields) {
+				writer.format("        final %s %s = %s;%n", field.type.name, field.name, field.type.getBufferReaderCall(field.getDestinationName()));
+			}
+			writer.format("        return new %s() {%n", datatype.name);
+			for (Field field : datatype.fields) {
+				writer.format("            public %s %s() { return %s; }%n", field.type.name, field.getGetterName(), field.name);
+			}
+			writer.format(
+					"        };%n"+
+					"    }%n"+
+					"}%n");
+		}
+	}
+	
+	void generateBufferWriter(Datatype datatype) throws IOException {
+		File file = new File(targetDir, datatype.name+"BufferWriter.java");
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.format("package %s;%n%n", packageName);
+			writer.format("@SuppressWarnings(\"unused\")%n");
+			writer.format("public class %sBufferWriter {%n", datatype.name);
+			writer.format(
+					"    private static int length(byte[] array) { return array == null ? 0 : array.length; }%n"+
+					"    private static int length(float[] array) { return array == null ? 0 : array.length; }%n");
+			writer.format(
+					"    private static int utfLength(String value) {%n"+
+					"        int length = 0;%n"+
+					"        for (int i = 0; i < value.length(); i++) {%n"+
+					"            char c = value.charAt(i);%n"+
+					"            length += c >= 0x01 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;%n"+
+					"        }%n"+
+					"        return length;%n"+
+					"    }%n");
+			writer.format(
+					"    private static void writeUTF(java.nio.ByteBuffer buffer, String value) {%n"+
+					"        buffer.putShort((short) utfLength(value));%n"+
+					"        for (int i = 0; i < value.length(); i++) {%n"+
+					"            char c = value.charAt(i);%n"+
+					"            if (c >= 0x01 && c < 0x80) { buffer.put((byte) c); }%n"+
+					"            else if (c < 0x800) { buffer.put((byte) (0xc0 | c >> 6)).put((byte) (0x80 | c & 0x3f)); }%n"+
+					"            else { buffer.put((byte) (0xe0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3f)).put((byte) (0x80 | c & 0x3f)); }%n"+
+					"        }%n"+
+					"    }%n");
+			writer.format(
+					"    private static void writeByteArray(java.nio.ByteBuffer buffer, byte[] array) {%n"+
+					"        buffer.putInt(length(array));%n"+
+					"        if (array != null) { buffer.put(array); }%n"+
+					"    }%n");
+			writer.format(
+					"    private static void writeFloatArray(java.nio.ByteBuffer buffer, float[] array) {%n"+
+					"        buffer.putInt(length(array));%n"+
+					"        if (array != null) {%n"+
+					"            buffer.asFloatBuffer().put(array);%n"+
+					"            buffer.position(buffer.position() + 4 * array.length);%n"+
+					"        }%n"+
+					"    }%n");
+			
+			int fixedSize = 0;
+			StringBuilder size = new StringBuilder();
+			for (Field field : datatype.fields) {
+				String fieldSize = field.type.getBufferSize("value." + field.getGetterName() + "()");
+				if (fieldSize.equals("4"))
+					fixedSize += 4;
+				else
+					size.append(" + ").append(fieldSize);
+			}
+			writer.format("    /** The number of bytes write puts in the buffer, a null array is written as an empty one. */%n");
+			writer.format("    public static int size(%s value) {%n", datatype.name);
+			writer.format("        return %d%s;%n", fixedSize, size);
+			writer.format("    }%n");
+			writer.format("    public static void write(java.nio.ByteBuffer buffer, %s value) {%n", datatype.name);
+			for (Field field : datatype.fields) {
+				writer.format("        %svalue.%s());%n", field.type.getBufferWriterCall(), field.getGetterName());
+			}
+			writer.format(
+					"    }%n"+
+					"}%n");
+		}
+	}
+	
+	void generateView(Datatype datatype) throws IOException {
+		File file = new File(targetDir, datatype.name+"View.java");
+		try (PrintWriter writer = new PrintWriter(file)) {
+			writer.format("package %s;%n%n", packageName);
+			writer.format(
+					"/**%n"+
+					" * An encoded %1$s in a buffer, in the format of %1$sBufferWriter. The fields are read from the buffer%n"+
+					" * when they are asked for, arrays are read once per wrap into the arrays of the previous wrap if they have%n"+
+					" * the same length. The view is only valid as long as the buffer is not changed.%n"+
+					" */%n", datatype.name);
+			writer.format("@SuppressWarnings(\"unused\")%n");
+			writer.format("public class %1$sView implements %1$s {%n", datatype.name);
+			writer.format("    private java.nio.ByteBuffer buffer;%n");
+			StringBuilder offsets = new StringBuilder();
+			for (Field field : datatype.fields) {
+				offsets.append(offsets.length() == 0 ? "" : ", ").append(field.getOffsetName());
+			}
+			writer.format("    private int %s, end;%n", offsets);
+			for (Field field : datatype.fields) {
+				if (field.type.isArray()) {
+					writer.format("    private %s %s;%n", field.type.name, field.name);
+					writer.format("    private boolean %sRead;%n", field.name);
+				}
+			}
+			writer.format(
+					"    private byte[] readByteArray(int offset, byte[] array) {%n"+
+					"        int length = buffer.getInt(offset);%n"+
+					"        if (array == null || array.length != length) { array = new byte[length]; }%n"+
+					"        int position = buffer.position();%n"+
+					"        buffer.position(offset + 4);%n"+
+					"        buffer.get(array);%n"+
+					"        buffer.position(position);%n"+
+					"        return array;%n"+
+					"    }%n");
+			writer.format(
+					"    private float[] readFloatArray(int offset, float[] array) {%n"+
+					"        int length = buffer.getInt(offset);%n"+
+					"        if (array == null || array.length != length) { array = new float[length]; }%n"+
+					"        for (int i = 0; i < length; i++) { array[i] = buffer.getFloat(offset + 4 + 4 * i); }%n"+
+					"        return array;%n"+
+					"    }%n");
+			writer.format(
+					"    private String readUTF(int offset) {%n"+
+					"        int index = offset + 2, end = index + (buffer.getShort(offset) & 0xffff);%n"+
+					"        StringBuilder builder = new StringBuilder(end - index);%n"+
+					"        while (index < end) {%n"+
+					"            int c = buffer.get(index++) & 0xff;%n"+
+					"            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get(index++) & 0x3f) << 6 | buffer.get(index++) & 0x3f; }%n"+
+					"            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get(index++) & 0x3f; }%n"+
+					"            builder.append((char) c);%n"+
+					"        }%n"+
+					"        return builder.toString();%n"+
+					"    }%n");
+			writer.format("    /** Views the value that starts at the given offset, the position of the buffer is not used. */%n");
+			writer.format("    public %sView wrap(java.nio.ByteBuffer buffer, int offset) {%n", datatype.name);
+			writer.format("        this.buffer = buffer;%n");
+			String offset = "offset";
+			for (Field field : datatype.fields) {
+				writer.format("        %s = %s;%n", field.getOffsetName(), offset);
+				offset = field.getOffsetName() + " + " + field.type.getViewSize(field.getOffsetName());
+			}
+			writer.format("        end = %s;%n", offset);
+			for (Field field : datatype.fields) {
+				if (field.type.isArray())
+					writer.format("        %sRead = false;%n", field.name);
+			}
+			writer.format("        return this;%n");
+			writer.format("    }%n");
+			writer.format("    /** The number of bytes of the value in the buffer. */%n");
+			writer.format("    public int encodedSize() { return end - %s; }%n", datatype.fields.isEmpty() ? "end" : datatype.fields.get(0).getOffsetName());
+			for (Field field : datatype.fields) {
+				String call = field.type.getViewCall(field.getOffsetName(), field.name);
+				if (field.type.isArray()) {
+					writer.format("    public %s %s() {%n", field.type.name, field.getGetterName());
+					writer.format("        if (!%sRead) { %s = %s; %sRead = true; }%n", field.name, field.name, call, field.name);
+					writer.format("        return %s;%n", field.name);
+					writer.format("    }%n");
+				} else {
+					writer.format("    public %s %s() { return %s; }%n", field.type.name, field.getGetterName(), call);
+				}
+			}
+			writer.format("}%n");
+		}
+	}
 }
@@ -0,0 +1,43 @@
+package interfaces;
+
+@SuppressWarnings("unused")
+public class PathBufferReader {
+    private static byte[] readByteArray(java.nio.ByteBuffer buffer, byte[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new byte[length]; }
+        buffer.get(array);
+        return array;
+    }
+    private static float[] readFloatArray(java.nio.ByteBuffer buffer, float[] array) {
+        int length = buffer.getInt();
+        if (array == null || array.length != length) { array = new float[length]; }
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + 4 * length);
+        return array;
+    }
+    private static String readUTF(java.nio.ByteBuffer buffer) {
+        int end = (buffer.getShort() & 0xffff) + buffer.position();
+        StringBuilder builder = new StringBuilder(end - buffer.position());
+        while (buffer.position() < end) {
+            int c = buffer.get() & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get() & 0x3f) << 6 | buffer.get() & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get() & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    public static Path read(java.nio.ByteBuffer buffer) {
+        return read(buffer, null, null, null);
+    }
+    /** The arrays are read into the given arrays if they have the right length. */
+    public static Path read(java.nio.ByteBuffer buffer, float[] destX, float[] destY, float[] destZ) {
+        final float[] x = readFloatArray(buffer, destX);
+        final float[] y = readFloatArray(buffer, destY);
+        final float[] z = readFloatArray(buffer, destZ);
+        return new Path() {
+            public float[] getX() { return x; }
+            public float[] getY() { return y; }
+            public float[] getZ() { return z; }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package interfaces;
+
+/**
+ * An encoded Path in a buffer, in the format of PathBufferWriter. The fields are read from the buffer
+ * when they are asked for, arrays are read once per wrap into the arrays of the previous wrap if they have
+ * the same length. The view is only valid as long as the buffer is not changed.
+ */
+@SuppressWarnings("unused")
+public class PathView implements Path {
+    private java.nio.ByteBuffer buffer;
+    private int xOffset, yOffset, zOffset, end;
+    private float[] x;
+    private boolean xRead;
+    private float[] y;
+    private boolean yRead;
+    private float[] z;
+    private boolean zRead;
+    private byte[] readByteArray(int offset, byte[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new byte[length]; }
+        int position = buffer.position();
+        buffer.position(offset + 4);
+        buffer.get(array);
+        buffer.position(position);
+        return array;
+    }
+    private float[] readFloatArray(int offset, float[] array) {
+        int length = buffer.getInt(offset);
+        if (array == null || array.length != length) { array = new float[length]; }
+        for (int i = 0; i < length; i++) { array[i] = buffer.getFloat(offset + 4 + 4 * i); }
+        return array;
+    }
+    private String readUTF(int offset) {
+        int index = offset + 2, end = index + (buffer.getShort(offset) & 0xffff);
+        StringBuilder builder = new StringBuilder(end - index);
+        while (index < end) {
+            int c = buffer.get(index++) & 0xff;
+            if (c >= 0xe0) { c = (c & 0x0f) << 12 | (buffer.get(index++) & 0x3f) << 6 | buffer.get(index++) & 0x3f; }
+            else if (c >= 0x80) { c = (c & 0x1f) << 6 | buffer.get(index++) & 0x3f; }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+    /** Views the value that starts at the given offset, the position of the buffer is not used. */
+    public PathView wrap(java.nio.ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        xOffset = offset;
+        yOffset = xOffset + 4 + 4 * buffer.getInt(xOffset);
+        zOffset = yOffset + 4 + 4 * buffer.getInt(yOffset);
+        end = zOffset + 4 + 4 * buffer.getInt(zOffset);
+        xRead = false;
+        yRead = false;
+        zRead = false;
+        return this;
+    }
+    /** The number of bytes of the value in the buffer. */
+    public int encodedSize() { return end - xOffset; }
+    public float[] getX() {
+        if (!xRead) { x = readFloatArray(xOffset, x); xRead = true; }
+        return x;
+    }
+    public float[] getY() {
+        if (!yRead) { y = readFloatArray(yOffset, y); yRead = true; }
+        return y;
+    }
+    public float[] getZ() {
+        if (!zRead) { z = readFloatArray(zOffset, z); zRead = true; }
+        return z;
+    }
+}
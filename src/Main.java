@@ -1,18 +1,34 @@
+import java.nio.file.Paths;
+
 import testbed.engine.Engine;
 import testbed.engine.IWorldRules;
 import testbed.gui.ConfigSetupGUI;
+import testbed.world.World;
+import testbed.world.scenario.ReplayWorld;
+import testbed.world.scenario.ScenarioRecorder;
 import utils.Constants;
 
 
+/**
+ * Usage: Main [-record file | -replay file]
+ */
 public class Main {
 
     public static void main(String[] args) {
         try {
-            ConfigSetupGUI gui = new ConfigSetupGUI();
-            IWorldRules worldRules = gui.showDialog();
+            IWorldRules worldRules;
+            if (args.length == 2 && args[0].equals("-replay")) {
+                worldRules = new ReplayWorld(Paths.get(args[1]));
+            } else {
+                ConfigSetupGUI gui = new ConfigSetupGUI();
+                worldRules = gui.showDialog();
+
+                if (args.length == 2 && args[0].equals("-record") && worldRules instanceof World)
+                    ((World) worldRules).setRecorder(new ScenarioRecorder(Paths.get(args[1])));
+            }
 
             //create a game engine
-            Engine gameEng = new Engine(Constants.TITLE, Constants.VSYNC, worldRules);
+            Engine gameEng = new Engine(Constants.TITLE, Constants.VSYNC, worldRules, Constants.SIMULATION_THREAD);
             //start the game loop
             gameEng.start();
         } catch (Exception excp) {
@@ -20,4 +36,4 @@ public class Main {
             System.exit(-1);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Matrix3f;
+import org.joml.Vector3f;
+
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotOutputs;
+import testbed.Physics;
+import testbed.entities.airport.Airport;
+import testbed.graphics.meshes.Mesh;
+import utils.PhysicsException;
+import utils.Utils;
+
+/**
+ * Compares the trajectories of the quaternion orientation mode with the matrix mode of Physics.
+ * Prints the largest difference in position and orientation, and the drift of the rotation matrix
+ * away from orthonormal. Exits with 1 if the trajectories differ more than the tolerance.
+ */
+public class OrientationRegressionCheck {
+
+    private static final float DT = 0.01f;
+    private static final float DURATION = 30f;
+
+    /**
+     * Allowed difference, relative to the distance travelled
+     */
+    private static final float POSITION_TOLERANCE = 1E-3f;
+    private static final float ANGLE_TOLERANCE = 1E-2f;
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        Mesh.setHeadless(true);
+
+        AutopilotConfig config = Utils.createDefaultConfig("orientation");
+
+        List<Airport> airports = new ArrayList<>();
+        airports.add(new Airport(50, 2500, new Vector3f(), 0.3f));
+
+        boolean ok = compare("turn", config, new Vector3f(0, 500, 0), new Vector3f(0, 0, -40), 0, airports,
+                Utils.buildOutputs(0.102f, 0.098f, 0, 0.01f, 1500, 0, 0, 0));
+
+        ok &= compare("climb", config, new Vector3f(0, 500, 0), new Vector3f(0, 0, -40), 0, airports,
+                Utils.buildOutputs(0.12f, 0.12f, -0.05f, 0, 2000, 0, 0, 0));
+
+        ok &= compare("taxi", config, new Vector3f(0, config.getTyreRadius() - config.getWheelY(), 0), new Vector3f(),
+                0.3f, airports, Utils.buildOutputs(0, 0, 0, 0, 300, 50, 0, 60));
+
+        if (!ok)
+            System.exit(1);
+    }
+
+    private static boolean compare(String name, AutopilotConfig config, Vector3f startPos, Vector3f startVel,
+                                   float heading, List<Airport> airports, AutopilotOutputs outputs) {
+        Physics matrix = new Physics();
+        matrix.init(config, startPos, new Vector3f(startVel), heading, airports);
+
+        Physics quaternion = new Physics();
+        quaternion.setQuaternions(true);
+        quaternion.init(config, startPos, new Vector3f(startVel), heading, airports);
+
+        float maxPos = 0, maxAngle = 0, distance = 0;
+        Vector3f lastPos = matrix.getPosition();
+        String error = null;
+        int steps = (int) (DURATION / DT);
+        try {
+            matrix.updateDrone(outputs);
+            quaternion.updateDrone(outputs);
+
+            for (int i = 0; i < steps; i++) {
+                matrix.update(DT);
+                quaternion.update(DT);
+
+                Vector3f pos = matrix.getPosition();
+                distance += pos.distance(lastPos);
+                lastPos = pos;
+
+                maxPos = Math.max(maxPos, pos.distance(quaternion.getPosition()));
+                maxAngle = Math.max(maxAngle, Math.max(angleDiff(matrix.getHeading(), quaternion.getHeading()),
+                        Math.max(angleDiff(matrix.getPitch(), quaternion.getPitch()),
+                                angleDiff(matrix.getRoll(), quaternion.getRoll()))));
+            }
+        } catch (PhysicsException e) {
+            error = e.getMessage();
+        }
+
+        boolean ok = error == null && maxPos <= POSITION_TOLERANCE * Math.max(distance, 1) && maxAngle <= ANGLE_TOLERANCE;
+
+        System.out.println(name + ": distance " + distance + " m, max position difference " + maxPos
+                + " m, max angle difference " + maxAngle + " rad, drift matrix " + drift(matrix.getTransMat())
+                + ", drift quaternion " + drift(quaternion.getTransMat())
+                + (error == null ? "" : ", error: " + error) + (ok ? "" : " FAILED"));
+        return ok;
+    }
+
+    private static float angleDiff(float a, float b) {
+        float diff = Math.abs(a - b);
+        return (float) Math.min(diff, 2 * Math.PI - diff);
+    }
+
+    /**
+     * Largest element of M * M^T - I
+     */
+    private static float drift(Matrix3f mat) {
+        Matrix3f product = mat.mul(mat.transpose(new Matrix3f()), new Matrix3f());
+        float[] values = product.get(new float[9]);
+
+        float max = 0;
+        for (int i = 0; i < 9; i++)
+            max = Math.max(max, Math.abs(values[i] - (i % 4 == 0 ? 1 : 0)));
+        return max;
+    }
+}
@@ -0,0 +1,76 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+import testbed.engine.HeadlessEngine;
+import testbed.world.World;
+import testbed.world.scenario.ScenarioRecorder;
+
+/**
+ * Checks that stepping the drones in parallel gives the same results as stepping them one after another.
+ * Runs a world headless twice, serial and on a ForkJoinPool, and records both runs. The recordings hold the
+ * autopilot outputs of every drone in every step, which depend on the whole state of the physics.
+ * Exits with 1 if the recordings or the results differ.
+ * <p>
+ * Usage: ParallelPhysicsCheck [world] [simulated seconds] [threads]
+ */
+public class ParallelPhysicsCheck {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        String worldName = args.length > 0 ? args[0] : "RandomWorld";
+        float duration = args.length > 1 ? Float.parseFloat(args[1]) : 600;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        Path serialFile = Files.createTempFile("serial", ".pcwr");
+        Path parallelFile = Files.createTempFile("parallel", ".pcwr");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            String serial = run(worldName, duration, null, serialFile);
+            String parallel = run(worldName, duration, pool, parallelFile);
+
+            boolean ok = serial.equals(parallel) && Arrays.equals(read(serialFile), read(parallelFile));
+
+            System.out.println("serial: " + serial);
+            System.out.println("parallel on " + threads + " threads: " + parallel);
+            System.out.println(ok ? "recordings are identical" : "recordings differ FAILED");
+
+            if (!ok)
+                System.exit(1);
+        } finally {
+            pool.shutdown();
+            Files.deleteIfExists(serialFile);
+            Files.deleteIfExists(parallelFile);
+        }
+    }
+
+    private static String run(String worldName, float duration, ForkJoinPool pool, Path file) throws Exception {
+        World world = (World) Class.forName("testbed.world.premade." + worldName).getDeclaredConstructor()
+                .newInstance();
+        world.setPhysicsPool(pool);
+        world.setRecorder(new ScenarioRecorder(file));
+
+        HeadlessEngine engine = new HeadlessEngine(world);
+        engine.run(duration);
+
+        return engine.getSteps() + " steps, " + world.getNbDrones() + " drones left, "
+                + world.getNbCrashedDrones() + " crashed, " + world.getNbDeliveredPackages() + " packages delivered";
+    }
+
+    private static byte[] read(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            byte[] buffer = new byte[1 << 16];
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            int n;
+            while ((n = in.read(buffer)) > 0)
+                bytes.write(buffer, 0, n);
+            return bytes.toByteArray();
+        }
+    }
+}
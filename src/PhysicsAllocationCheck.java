@@ -0,0 +1,58 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import org.joml.Vector3f;
+
+import interfaces.AutopilotConfig;
+import testbed.Physics;
+import utils.PhysicsException;
+import utils.Utils;
+
+/**
+ * Checks that Physics.update does not allocate once it is warmed up.
+ * Uses the allocation counter of the HotSpot ThreadMXBean, exits with 1 if any bytes were allocated.
+ */
+public class PhysicsAllocationCheck {
+
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int WARMUP_STEPS = 10_000;
+    private static final int STEPS = 200_000;
+    private static final float DT = 0.001f;
+
+    public static void main(String[] args) throws PhysicsException {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        bean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        AutopilotConfig config = Utils.createDefaultConfig("allocation");
+
+        Physics physics = new Physics();
+        physics.init(config, new Vector3f(0, 500, 0), new Vector3f(0, 0, -40), new ArrayList<>());
+        physics.updateDrone(Utils.buildOutputs(0.1f, 0.1f, 0, 0, 1000, 0, 0, 0));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            step(physics, WARMUP_STEPS);
+
+        // the counter itself may allocate, measure an empty run first
+        long overhead = measure(bean, threadId, physics, 0);
+        long allocated = measure(bean, threadId, physics, STEPS) - overhead;
+
+        System.out.println("Physics.update: " + allocated + " bytes allocated over " + STEPS + " steps ("
+                + ((float) allocated / STEPS) + " B/step)");
+
+        if (allocated > 0)
+            System.exit(1);
+    }
+
+    private static long measure(com.sun.management.ThreadMXBean bean, long threadId, Physics physics, int steps)
+            throws PhysicsException {
+        long before = bean.getThreadAllocatedBytes(threadId);
+        step(physics, steps);
+        return bean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static void step(Physics physics, int steps) throws PhysicsException {
+        for (int i = 0; i < steps; i++)
+            physics.update(DT);
+    }
+}
@@ -10,12 +10,15 @@ import interfaces.Autopilot;
 import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
+import utils.MutableOutputs;
 
 public class LogPilot implements Autopilot {
 
     private BufferedWriter writer;
     private float time = 0f;
 
+    private final MutableOutputs outputs = new MutableOutputs();
+
     @Override
     public AutopilotOutputs timePassed(AutopilotInputs inputs) {
         time += inputs.getElapsedTime();
@@ -24,7 +27,7 @@ public class LogPilot implements Autopilot {
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return utils.Utils.buildOutputs(0, 0, 0, 0, 0, -1, -1, -1);
+        return outputs.set(0, 0, 0, 0, 0, -1, -1, -1);
     }
 
     @Override
@@ -38,7 +41,7 @@ public class LogPilot implements Autopilot {
             e.printStackTrace();
         }
 
-        return utils.Utils.buildOutputs(0, 0, 0, 0, 0, -1, -1, -1);
+        return outputs.set(0, 0, 0, 0, 0, -1, -1, -1);
     }
 
     @Override
@@ -14,7 +14,7 @@ import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
 import utils.FloatMath;
-import utils.Utils;
+import utils.MutableOutputs;
 
 public class Pilot {
 
@@ -43,6 +43,11 @@ public class Pilot {
 
     private AirportManager airportManager;
 
+    /**
+     * Returned once all tasks are done
+     */
+    private final MutableOutputs outputs = new MutableOutputs();
+
     public Pilot(VirtualDrone vDrone, AirportManager airportManager) {
         this.tasks = new int[]{};
         this.pilots = new PilotPart[13];
@@ -64,7 +69,7 @@ public class Pilot {
 
         if (this.index >= this.tasks.length) {
             vDrone.setPilot(null);
-            return Utils.buildOutputs(0, 0, 0, 0, 0, 0, 0, 0);
+            return outputs.set(0, 0, 0, 0, 0, 0, 0, 0);
         }
 
         AutopilotOutputs output = currentPilot().timePassed(inputs);
@@ -153,9 +158,7 @@ public class Pilot {
     }
 
     public static boolean onAirport(Vector3f pos, VirtualAirport airport) {
-        Vector3f diff = pos.sub(airport.getPosition(), new Vector3f());
-        float len = diff.dot(new Vector3f(-FloatMath.sin(airport.getHeading()), 0, -FloatMath.cos(airport.getHeading())));
-        float wid = diff.dot(new Vector3f(-FloatMath.cos(airport.getHeading()), 0, FloatMath.sin(airport.getHeading())));
+        float len = alongRunway(pos, airport), wid = acrossRunway(pos, airport);
 
         if (Math.abs(len) > airport.getWidth() / 2) {
             return false;
@@ -164,6 +167,25 @@ public class Pilot {
     }
 
 
+    /**
+     * Distance from the center of the airport along the runways, positive towards runway 0.
+     */
+    public static float alongRunway(Vector3f pos, VirtualAirport airport) {
+        Vector3f center = airport.getPosition();
+        return (pos.x - center.x) * -FloatMath.sin(airport.getHeading())
+                + (pos.z - center.z) * -FloatMath.cos(airport.getHeading());
+    }
+
+    /**
+     * Distance from the center of the airport across the runways, positive towards gate 0.
+     */
+    public static float acrossRunway(Vector3f pos, VirtualAirport airport) {
+        Vector3f center = airport.getPosition();
+        return (pos.x - center.x) * -FloatMath.cos(airport.getHeading())
+                + (pos.z - center.z) * FloatMath.sin(airport.getHeading());
+    }
+
+
 	public void simulationEnded() {
         for (PilotPart pilot : this.pilots) {
             if (pilot != null) {
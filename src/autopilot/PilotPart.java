@@ -3,9 +3,15 @@ package autopilot;
 import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
+import utils.MutableOutputs;
 
 public abstract class PilotPart {
 
+    /**
+     * Outputs die elke tijdsstap hergebruikt worden, geldig tot de volgende timePassed
+     */
+    protected final MutableOutputs outputs = new MutableOutputs();
+
     /**
      * Instellen van de config
      */
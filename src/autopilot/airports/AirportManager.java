@@ -6,29 +6,74 @@ import org.joml.Vector3f;
 
 import autopilot.Pilot;
 import autopilot.gui.AutopilotGUI;
-import autopilot.pilots.LandingPilot;
+import utils.AirportIndex;
+import utils.Constants;
 import utils.FloatMath;
+import utils.MutableInputs;
 
+import java.awt.GraphicsEnvironment;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-public class AirportManager implements AutopilotModule {
+public class AirportManager implements BulkAutopilotModule {
 
     private float length;
     private float width;
     private int MIN_HEIGHT = 50, SLICE_THICKNESS = 7;
 
     private List<VirtualAirport> airportList;
+
+    /**
+     * The full area of every airport, ids are the indices in airportList
+     */
+    private AirportIndex airportIndex;
     private List<VirtualDrone> droneList;
     private Queue<VirtualPackage> transportQueue;
 
+    /**
+     * null when running headless
+     */
     private AutopilotGUI gui;
 
+    /**
+     * The outputs of the drones are calculated on this pool in the first completeTimeHasPassed
+     * of a tick, null to calculate them one after another in startTimeHasPassed.
+     */
+    private final ForkJoinPool autopilotPool;
+    private int[] pending = new int[0];
+
+    /**
+     * The inputs of timeHasPassed, one per drone
+     */
+    private MutableInputs[] bulkInputs = new MutableInputs[0];
+    private int nbPending;
+
+    /**
+     * True between the first startTimeHasPassed and the first completeTimeHasPassed of a tick
+     */
+    private boolean tickStarted;
+
+    /**
+     * True while the outputs are calculated on the pool, the drones then only see each other
+     * as they were at the start of the tick
+     */
+    private boolean parallelTick;
+    private boolean transportPending;
+    private float transportTime;
+
     public AirportManager() {
+        this(Constants.PARALLEL_AUTOPILOT ? ForkJoinPool.commonPool() : null);
+    }
+
+    public AirportManager(ForkJoinPool autopilotPool) {
+        this.autopilotPool = autopilotPool;
         airportList = new ArrayList<>();
+        airportIndex = new AirportIndex();
         droneList = new ArrayList<>();
         transportQueue = new LinkedList<>();
     }
@@ -49,6 +94,7 @@ public class AirportManager implements AutopilotModule {
         float heading = FloatMath.atan2(-centerToRunway0X, -centerToRunway0Z);
 
         airportList.add(new VirtualAirport(airportList.size(), position, heading, width, length));
+        airportIndex.add(centerX, centerZ, heading, width / 2 + length, width);
     }
 
     @Override
@@ -59,6 +105,12 @@ public class AirportManager implements AutopilotModule {
         heading += (pointingToRunway == 0 ? 0 : FloatMath.PI * (heading > 0 ? -1 : 1));
 
         droneList.add(new VirtualDrone(position, heading, config, this));
+        pending = Arrays.copyOf(pending, droneList.size());
+        bulkInputs = Arrays.copyOf(bulkInputs, droneList.size());
+        bulkInputs[droneList.size() - 1] = new MutableInputs();
+
+        if (GraphicsEnvironment.isHeadless())
+            return;
 
         if (droneList.size() == 1) {
             gui = new AutopilotGUI(droneList);
@@ -69,13 +121,34 @@ public class AirportManager implements AutopilotModule {
 
     @Override
     public void startTimeHasPassed(int drone, AutopilotInputs inputs) {
-        droneList.get(drone).setInputs(inputs);
-        droneList.get(drone).calcOutputs();
-        if (drone == droneList.size() - 1) handleTransportEvents(inputs.getElapsedTime());
+        if (!tickStarted) {
+            if (autopilotPool != null)
+                for (VirtualDrone vDrone : droneList)
+                    vDrone.startTick();
+            tickStarted = true;
+        }
+
+        VirtualDrone vDrone = droneList.get(drone);
+        vDrone.setInputs(inputs);
+        if (autopilotPool == null)
+            vDrone.calcOutputs();
+        else
+            pending[nbPending++] = drone;
+
+        if (drone == droneList.size() - 1) {
+            transportPending = true;
+            transportTime = inputs.getElapsedTime();
+        }
     }
 
     @Override
     public AutopilotOutputs completeTimeHasPassed(int drone) {
+        if (tickStarted)
+            completeTick();
+
+        if (gui == null)
+            return droneList.get(drone).getOutputs();
+
         if (drone == droneList.size() - 1)
             gui.updateOutputs();
 
@@ -85,14 +158,90 @@ public class AirportManager implements AutopilotModule {
             return droneList.get(drone).getOutputs();
     }
 
+    @Override
+    public void timeHasPassed(int[] drones, int nbDrones, float[] states, float[] outputs) {
+        for (int i = 0; i < nbDrones; i++) {
+            int offset = i * STATE_SIZE;
+            startTimeHasPassed(drones[i], bulkInputs[drones[i]].set(states, offset, states[offset + 6]));
+        }
+
+        for (int i = 0; i < nbDrones; i++) {
+            AutopilotOutputs output = completeTimeHasPassed(drones[i]);
+
+            int offset = i * OUTPUT_SIZE;
+            outputs[offset] = output.getThrust();
+            outputs[offset + 1] = output.getLeftWingInclination();
+            outputs[offset + 2] = output.getRightWingInclination();
+            outputs[offset + 3] = output.getHorStabInclination();
+            outputs[offset + 4] = output.getVerStabInclination();
+            outputs[offset + 5] = output.getFrontBrakeForce();
+            outputs[offset + 6] = output.getLeftBrakeForce();
+            outputs[offset + 7] = output.getRightBrakeForce();
+        }
+    }
+
     @Override
     public void deliverPackage(int fromAirport, int fromGate, int toAirport, int toGate) {
         VirtualPackage pack = new VirtualPackage(fromAirport, fromGate, toAirport, toGate);
-        gui.addPackage(pack);
+        if (gui != null)
+            gui.addPackage(pack);
         transportQueue.add(pack);
         pack.setStatus("In queue");
     }
 
+    /**
+     * Calculates the outputs of the drones that are still pending, the transport events are handled
+     * once all drones have their outputs, like when they are calculated one after another.
+     */
+    private void completeTick() {
+        if (nbPending > OutputsTask.THRESHOLD) {
+            parallelTick = true;
+            try {
+                autopilotPool.invoke(new OutputsTask(0, nbPending));
+            } finally {
+                parallelTick = false;
+            }
+        } else {
+            for (int i = 0; i < nbPending; i++)
+                droneList.get(pending[i]).calcOutputs();
+        }
+        nbPending = 0;
+        tickStarted = false;
+
+        if (transportPending) {
+            transportPending = false;
+            handleTransportEvents(transportTime);
+        }
+    }
+
+    /**
+     * Splits the pending drones over the autopilot pool.
+     * The pilots only change the state of their own drone, see checkAirport.
+     */
+    @SuppressWarnings("serial")
+    private class OutputsTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 4;
+
+        private final int from, to;
+
+        OutputsTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++)
+                    droneList.get(pending[i]).calcOutputs();
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new OutputsTask(from, mid), new OutputsTask(mid, to));
+            }
+        }
+    }
+
     /**
      * Checks if we need to assign a drone that is idling or
      * if a drone picked up a packet.
@@ -131,12 +280,9 @@ public class AirportManager implements AutopilotModule {
                 pack.assignDrone(drone);
                 drone.setPackage(pack);
 
-                ArrayList<VirtualAirport> currentAirportList = (ArrayList<VirtualAirport>) airportList.stream()
-                        .filter((a) -> Pilot.onAirport(drone.getPosition(), a))
-                        .collect(Collectors.toList());
+                VirtualAirport currentAirport = getDroneAirport(drone);
 
-                if (currentAirportList.size() >= 1) {
-                    VirtualAirport currentAirport = currentAirportList.get(0);
+                if (currentAirport != null) {
 
                     //get a slice from the set
                     int currentSlice = (droneList.indexOf(drone) * SLICE_THICKNESS) + MIN_HEIGHT;
@@ -187,10 +333,7 @@ public class AirportManager implements AutopilotModule {
             for (VirtualDrone vDrone : droneList) {
                 if (vDrone.isActive()) continue;
                 //where is this drone?
-                ArrayList<VirtualAirport> currentAirports = getDroneAirports(vDrone);
-                if (currentAirports.size() == 0) continue;
-
-                VirtualAirport currentAirport = currentAirports.get(0);
+                VirtualAirport currentAirport = getDroneAirport(vDrone);
                 if (currentAirport == null) continue;
 
                 Loc location = whereOnAirport(vDrone.getPosition(), currentAirport);
@@ -223,16 +366,16 @@ public class AirportManager implements AutopilotModule {
     }
 
     /**
-     * Returns the airports* that the drone is currently on. This is returned
-     * as a list because theoretically this could be multiple airports.
+     * Returns the airport that the drone is currently on. If the drone
+     * is on multiple airports, the first one that was defined.
      *
      * @param vDrone the drone we're searching airports for
-     * @return an ArrayList of airports the drone is on
+     * @return the airport the drone is on, null if there is none
      */
-    private ArrayList<VirtualAirport> getDroneAirports(VirtualDrone vDrone) {
-        return (ArrayList<VirtualAirport>) airportList.stream()
-                .filter((a) -> Pilot.onAirport(vDrone.getPosition(), a))
-                .collect(Collectors.toList());
+    private VirtualAirport getDroneAirport(VirtualDrone vDrone) {
+        Vector3f pos = vDrone.getPosition();
+        int id = airportIndex.find(pos.x, pos.z, width / 2, width);
+        return id < 0 ? null : airportList.get(id);
     }
 
     public VirtualDrone chooseBestDrone(int airport, int gate) {
@@ -273,9 +416,7 @@ public class AirportManager implements AutopilotModule {
     }
 
     private Loc whereOnAirport(Vector3f pos, VirtualAirport airport) {
-        Vector3f diff = pos.sub(airport.getPosition(), new Vector3f());
-        float len = diff.dot(new Vector3f(-FloatMath.sin(airport.getHeading()), 0, -FloatMath.cos(airport.getHeading())));
-        float wid = diff.dot(new Vector3f(-FloatMath.cos(airport.getHeading()), 0, FloatMath.sin(airport.getHeading())));
+        float len = Pilot.alongRunway(pos, airport), wid = Pilot.acrossRunway(pos, airport);
 
         if (len > airport.getWidth() / 2)
             return Loc.LANE_0;
@@ -288,26 +429,23 @@ public class AirportManager implements AutopilotModule {
     }
 
     public boolean onFullAirport(Vector3f pos, VirtualAirport airport) {
-        Vector3f diff = pos.sub(airport.getPosition(), new Vector3f());
-        float len = diff.dot(new Vector3f(-FloatMath.sin(airport.getHeading()), 0, -FloatMath.cos(airport.getHeading())));
-        float wid = diff.dot(new Vector3f(-FloatMath.cos(airport.getHeading()), 0, FloatMath.sin(airport.getHeading())));
-
-        if (Math.abs(len) > airport.getWidth() / 2 + airport.getLength()) {
-            return false;
-        } else return !(Math.abs(wid) > airport.getWidth());
-
+        return airportIndex.contains(airport.getId(), pos.x, pos.z);
     }
 
+    /**
+     * Checks whether a drone can land on the airport and taxi to the gate.
+     * Called by the pilots while the outputs are calculated, so this only looks at
+     * the state of the other drones at the start of the tick.
+     */
     public boolean checkAirport(VirtualAirport airport, int gate) {
         Loc loc;
         if (gate == 0) loc = Loc.GATE_0;
         else loc = Loc.GATE_1;
         for (VirtualDrone drone : droneList) {
-            Pilot dronePilot = drone.getPilot();
-            Vector3f dronePos = drone.getPosition();
+            Vector3f dronePos = parallelTick ? drone.getTickPosition() : drone.getPosition();
             if (onFullAirport(dronePos, airport) && (whereOnAirport(dronePos, airport) == loc || whereOnAirport(dronePos, airport) == Loc.LANE_0 || whereOnAirport(dronePos, airport) == Loc.LANE_1)) {
                 return false;
-            } else if (dronePilot != null && !dronePilot.getEnded() && dronePilot.currentPilot() instanceof LandingPilot && ((LandingPilot) dronePilot.currentPilot()).getCurrentDestionationAirport() == airport) {
+            } else if ((parallelTick ? drone.getTickLandingAirport() : drone.getLandingAirport()) == airport) {
                 return false;
             }
 
@@ -320,7 +458,8 @@ public class AirportManager implements AutopilotModule {
         for (VirtualDrone drone : droneList) {
             drone.endSimulation();
         }
-        gui.dispose();
+        if (gui != null)
+            gui.dispose();
     }
 
 }
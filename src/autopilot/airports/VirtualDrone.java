@@ -1,6 +1,7 @@
 package autopilot.airports;
 
 import autopilot.Pilot;
+import autopilot.pilots.LandingPilot;
 import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
@@ -9,14 +10,14 @@ import org.joml.Vector3f;
 public class VirtualDrone {
 
     public VirtualDrone(Vector3f position, float heading, AutopilotConfig config, AirportManager airPortManager) {
-        this.position = position;
+        this.position = new Vector3f(position);
         this.heading = heading;
         this.config = config;
         this.pilot = new Pilot(this, airPortManager);
         pilot.simulationStarted(config);
     }
 
-    private Vector3f position;
+    private final Vector3f position;
     private float heading;
 
     private Pilot pilot;
@@ -28,6 +29,12 @@ public class VirtualDrone {
     private boolean pickedUp;
     private VirtualAirport currTarget, nextTarget;
 
+    /**
+     * The state of this drone at the start of the tick, as seen by the other drones while their outputs are calculated
+     */
+    private final Vector3f tickPosition = new Vector3f();
+    private VirtualAirport tickLandingAirport;
+
     public Vector3f getPosition() {
         return this.position;
     }
@@ -49,7 +56,7 @@ public class VirtualDrone {
     }
 
     public void setPosition(Vector3f position) {
-        this.position = position;
+        this.position.set(position);
     }
 
     public void setHeading(float heading) {
@@ -68,8 +75,11 @@ public class VirtualDrone {
         return currentInputs;
     }
 
+    /**
+     * The inputs are kept until the next call, they may be reused by the caller after that.
+     */
     public void setInputs(AutopilotInputs inputs) {
-        this.position = new Vector3f(inputs.getX(), inputs.getY(), inputs.getZ());
+        this.position.set(inputs.getX(), inputs.getY(), inputs.getZ());
         this.heading = inputs.getHeading();
 
         this.currentInputs = inputs;
@@ -89,6 +99,35 @@ public class VirtualDrone {
         }
     }
 
+    /**
+     * Saves the state the other drones can see during this tick,
+     * so it does not matter in what order or on which thread the outputs are calculated.
+     */
+    void startTick() {
+        this.tickPosition.set(this.position);
+        this.tickLandingAirport = getLandingAirport();
+    }
+
+    /**
+     * The airport this drone is landing on, null if it is not landing
+     */
+    VirtualAirport getLandingAirport() {
+        if (pilot != null && !pilot.getEnded() && pilot.currentPilot() instanceof LandingPilot)
+            return ((LandingPilot) pilot.currentPilot()).getCurrentDestionationAirport();
+        return null;
+    }
+
+    Vector3f getTickPosition() {
+        return tickPosition;
+    }
+
+    /**
+     * The airport this drone was landing on at the start of the tick, null if it was not landing
+     */
+    VirtualAirport getTickLandingAirport() {
+        return tickLandingAirport;
+    }
+
     public void setPackage(VirtualPackage vpackage) {
         this.pickedUp = false;
         this.pack = vpackage;
@@ -10,7 +10,6 @@ import autopilot.pilots.fly.pid.RollPID;
 import autopilot.pilots.fly.pid.ThrustPID;
 import utils.Constants;
 import utils.FloatMath;
-import utils.Utils;
 
 import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
@@ -90,7 +89,7 @@ public class FlyPilot extends PilotPart {
         if (!part1Complete && pos.distance(pointBR) < this.turnRadius + 100 && check) {
             setCurrentState(State.Stable);
             control(inputs, currentState);
-            return Utils.buildOutputs(leftWingInclination,
+            return outputs.set(leftWingInclination,
                     rightWingInclination, verStabInclination, horStabInclination,
                     newThrust, rMax, rMax, rMax);
         }
@@ -108,7 +107,7 @@ public class FlyPilot extends PilotPart {
                 this.ended = true;
             }
 
-            return Utils.buildOutputs(leftWingInclination,
+            return outputs.set(leftWingInclination,
                     rightWingInclination, verStabInclination, horStabInclination,
                     newThrust, rMax, rMax, rMax);
         }
@@ -175,7 +174,7 @@ public class FlyPilot extends PilotPart {
         if (stableTime > 0) {
             setCurrentState(State.Stable);
         }
-        return Utils.buildOutputs(leftWingInclination,
+        return outputs.set(leftWingInclination,
                 rightWingInclination, verStabInclination, horStabInclination,
                 newThrust, rMax, rMax, rMax);
     }
@@ -6,7 +6,6 @@ import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
 import org.joml.Vector3f;
 import utils.FloatMath;
-import utils.Utils;
 
 public class HandbrakePilot extends PilotPart {
     private float maxR;
@@ -29,7 +28,7 @@ public class HandbrakePilot extends PilotPart {
 
         if (speed == Math.min(previousspeed, oldspeed)) {
             this.ended = true;
-            return Utils.buildOutputs(0, 0, 0, 0, 0, 0, 0, 0);
+            return outputs.set(0, 0, 0, 0, 0, 0, 0, 0);
         }
 
         this.oldPos = pos;
@@ -37,7 +36,7 @@ public class HandbrakePilot extends PilotPart {
         this.previousspeed = speed;
         this.time = input.getElapsedTime();
 
-        return Utils.buildOutputs(0, 0, 0, 0, 0, maxR, maxR, maxR);
+        return outputs.set(0, 0, 0, 0, 0, maxR, maxR, maxR);
     }
 
     @Override
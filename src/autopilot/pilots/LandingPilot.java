@@ -10,7 +10,6 @@ import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
 import utils.FloatMath;
-import utils.Utils;
 
 public class LandingPilot extends PilotPart {
 
@@ -137,7 +136,7 @@ public class LandingPilot extends PilotPart {
             }
         }
 
-        return Utils.buildOutputs(FloatMath.toRadians(lwIncl), FloatMath.toRadians(rwIncl), 0, horStabIncl, thrust, brakes, brakes, brakes);
+        return outputs.set(FloatMath.toRadians(lwIncl), FloatMath.toRadians(rwIncl), 0, horStabIncl, thrust, brakes, brakes, brakes);
     }
 
     @Override
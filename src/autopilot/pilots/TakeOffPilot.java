@@ -9,7 +9,6 @@ import interfaces.AutopilotConfig;
 import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
 import utils.FloatMath;
-import utils.Utils;
 
 public class TakeOffPilot extends PilotPart {
 
@@ -75,7 +74,7 @@ public class TakeOffPilot extends PilotPart {
                 ended = true;
         }
 
-        return Utils.buildOutputs(FloatMath.toRadians(lwIncl), FloatMath.toRadians(rwIncl), 0, horStabIncl, thrust, 0, 0, 0);
+        return outputs.set(FloatMath.toRadians(lwIncl), FloatMath.toRadians(rwIncl), 0, horStabIncl, thrust, 0, 0, 0);
     }
 
 
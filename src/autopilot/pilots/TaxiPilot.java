@@ -8,7 +8,6 @@ import interfaces.AutopilotInputs;
 import interfaces.AutopilotOutputs;
 import org.joml.Vector3f;
 import utils.FloatMath;
-import utils.Utils;
 
 public class TaxiPilot extends PilotPart {
 
@@ -137,7 +136,7 @@ public class TaxiPilot extends PilotPart {
 
         this.time = input.getElapsedTime();
 
-        return Utils.buildOutputs(0, 0, 0, 0, thrust, lBrake, fBrake, rBrake);
+        return outputs.set(0, 0, 0, 0, thrust, lBrake, fBrake, rBrake);
     }
 
     public Boolean checkTurn(float target, AutopilotInputs input) {
@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.joml.Vector3f;
+
+import autopilot.airports.AirportManager;
+import autopilot.airports.VirtualAirport;
+import interfaces.AutopilotConfig;
+import utils.MutableInputs;
+import utils.Utils;
+
+/**
+ * One step of the AirportManager: startTimeHasPassed and completeTimeHasPassed for every drone.
+ * The drones stand at the gates of a row of airports and every drone gets a package to deliver,
+ * so the scheduling and the pilots are included.
+ * <p>
+ * The parallel variant calculates the outputs of the drones on the common pool,
+ * the sequential one in startTimeHasPassed. On a single core the parallel variant only
+ * measures the overhead of the pool.
+ */
+public class AirportManagerBenchmark extends Benchmark {
+
+    private static final float DT = 0.01f;
+    private static final float WIDTH = 50, LENGTH = 2500, SPACING = 5000;
+
+    private final int nbDrones;
+    private final boolean parallel;
+
+    private AirportManager manager;
+    private MutableInputs[] inputs;
+    private float time;
+
+    public AirportManagerBenchmark(int nbDrones, boolean parallel) {
+        super("AirportManager.timeHasPassed." + nbDrones + (parallel ? ".parallel" : ".sequential"));
+        this.nbDrones = nbDrones;
+        this.parallel = parallel;
+    }
+
+    @Override
+    public void setup() {
+        manager = new AirportManager(parallel ? ForkJoinPool.commonPool() : null);
+        manager.defineAirportParams(LENGTH, WIDTH);
+
+        // two drones per airport, one at each gate
+        int nbAirports = Math.max(2, (nbDrones + 1) / 2);
+        for (int i = 0; i < nbAirports; i++)
+            manager.defineAirport(i * SPACING, 0, 0, -1);
+
+        inputs = new MutableInputs[nbDrones];
+        for (int i = 0; i < nbDrones; i++) {
+            AutopilotConfig config = Utils.createDefaultConfig("drone" + i);
+            int airport = i / 2, gate = i % 2;
+            manager.defineDrone(airport, gate, 0, config);
+
+            Vector3f pos = new VirtualAirport(airport, new Vector3f(airport * SPACING, 0, 0), 0, WIDTH, LENGTH)
+                    .getGate(gate);
+            inputs[i] = new MutableInputs().setPosition(pos.x, config.getTyreRadius() - config.getWheelY(), pos.z);
+        }
+
+        for (int i = 0; i < nbDrones; i++) {
+            int from = i / 2, to = (from + 1) % nbAirports;
+            manager.deliverPackage(from, i % 2, to, i % 2);
+        }
+
+        time = 0;
+    }
+
+    @Override
+    public Object operation() {
+        time += DT;
+
+        for (int i = 0; i < nbDrones; i++) {
+            manager.startTimeHasPassed(i, inputs[i].setElapsedTime(time));
+        }
+
+        Object outputs = null;
+        for (int i = 0; i < nbDrones; i++)
+            outputs = manager.completeTimeHasPassed(i);
+        return outputs;
+    }
+
+    @Override
+    public void tearDown() {
+        manager.simulationEnded();
+    }
+}
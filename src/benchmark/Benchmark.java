@@ -0,0 +1,34 @@
+package benchmark;
+
+/**
+ * A benchmark measured by the BenchmarkRunner, in time and allocated bytes per operation.
+ */
+public abstract class Benchmark {
+
+    private final String name;
+
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Prepares the state, called once before warming up.
+     */
+    public void setup() throws Exception {
+    }
+
+    /**
+     * Executes one operation, the result is kept alive so the work can not be optimised away.
+     */
+    public abstract Object operation() throws Exception;
+
+    /**
+     * Called once after the last measurement.
+     */
+    public void tearDown() throws Exception {
+    }
+}
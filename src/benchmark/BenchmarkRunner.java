@@ -0,0 +1,215 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import testbed.graphics.meshes.Mesh;
+
+/**
+ * Runs benchmarks with warmup and measurement iterations and reports the average time per operation (ns/op),
+ * the operations per second and the bytes allocated per operation (B/op), measured with the allocation counters
+ * of all threads. Work a benchmark hands to other threads, like pool workers or the server thread of the wire
+ * benchmarks, is counted too. So is anything else the JVM runs at the same time.
+ * <p>
+ * Usage: BenchmarkRunner [name filter...]
+ * <br>
+ * Options: -Dbenchmark.warmup=5 -Dbenchmark.iterations=5 -Dbenchmark.time=1000 (ms per iteration)
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Results of the operations end up here, so they can not be eliminated.
+     */
+    static Object sink;
+
+    private final int warmupIterations, iterations;
+    private final long iterationNanos;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+
+
+    public BenchmarkRunner(int warmupIterations, int iterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    public BenchmarkRunner() {
+        this(Integer.getInteger("benchmark.warmup", 5), Integer.getInteger("benchmark.iterations", 5),
+                Long.getLong("benchmark.time", 1000));
+    }
+
+
+    public Result run(Benchmark benchmark) throws Exception {
+        benchmark.setup();
+
+        try {
+            int batch = 1;
+            for (int i = 0; i < warmupIterations; i++)
+                batch = iteration(benchmark, batch, null);
+
+            double[] scores = new double[iterations];
+            long[] measurement = new long[3];
+            long ops = 0, bytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                batch = iteration(benchmark, batch, measurement);
+                scores[i] = (double) measurement[1] / measurement[0];
+                ops += measurement[0];
+                bytes += measurement[2];
+            }
+
+            return new Result(benchmark.getName(), scores, (double) bytes / ops);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Runs batches of operations for one iteration. The batch size grows until a batch takes at least 10µs,
+     * so reading the clock does not influence the score.
+     *
+     * @param measurement {operations, nanoseconds, allocated bytes}, or null while warming up
+     * @return the batch size for the next iteration
+     */
+    private int iteration(Benchmark benchmark, int batch, long[] measurement) throws Exception {
+        long threadId = Thread.currentThread().getId();
+        long ops = 0;
+
+        // the counters of the other threads are read outside of the counted part of this thread,
+        // reading them allocates
+        long[] otherIds = threadBean.getAllThreadIds();
+        long[] otherBefore = threadBean.getThreadAllocatedBytes(otherIds);
+        long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime(), now = start;
+
+        while (now - start < iterationNanos) {
+            long batchStart = now;
+            for (int i = 0; i < batch; i++)
+                sink = benchmark.operation();
+            ops += batch;
+
+            now = System.nanoTime();
+            if (now - batchStart < 10_000 && batch < 1 << 20)
+                batch *= 2;
+        }
+
+        long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+        bytes += otherThreadsAllocated(threadId, otherIds, otherBefore);
+
+        if (measurement != null) {
+            measurement[0] = ops;
+            measurement[1] = now - start;
+            measurement[2] = bytes;
+        }
+        return batch;
+    }
+
+    /**
+     * Bytes allocated by all threads except the given one since the counters were read.
+     * Threads that started since then count with everything they allocated, threads that ended are lost.
+     */
+    private long otherThreadsAllocated(long threadId, long[] idsBefore, long[] bytesBefore) {
+        long[] ids = threadBean.getAllThreadIds();
+        long[] bytes = threadBean.getThreadAllocatedBytes(ids);
+
+        long total = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == threadId || bytes[i] < 0)
+                continue;
+
+            long before = 0;
+            for (int j = 0; j < idsBefore.length; j++) {
+                if (idsBefore[j] == ids[i]) {
+                    before = Math.max(bytesBefore[j], 0);
+                    break;
+                }
+            }
+            total += bytes[i] - before;
+        }
+        return total;
+    }
+
+
+    public static class Result {
+
+        private final String name;
+        private final double score, error, bytesPerOp;
+
+        Result(String name, double[] scores, double bytesPerOp) {
+            this.name = name;
+            this.bytesPerOp = bytesPerOp;
+
+            double sum = 0;
+            for (double score : scores)
+                sum += score;
+            this.score = sum / scores.length;
+
+            double squares = 0;
+            for (double score : scores)
+                squares += (score - this.score) * (score - this.score);
+            this.error = scores.length > 1 ? Math.sqrt(squares / (scores.length - 1)) : 0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Average time per operation in nanoseconds
+         */
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * Standard deviation of the time per operation over the iterations
+         */
+        public double getError() {
+            return error;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-45s %14.3f +- %10.3f ns/op %14.0f ops/s %12.1f B/op", name, score, error,
+                    1E9 / score, bytesPerOp);
+        }
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Mesh.setHeadless(true);
+
+        List<Benchmark> selected = new ArrayList<>();
+        for (Benchmark benchmark : Benchmarks.all()) {
+            boolean match = args.length == 0;
+            for (String filter : args)
+                match |= benchmark.getName().contains(filter);
+            if (match)
+                selected.add(benchmark);
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner();
+        List<Result> results = new ArrayList<>();
+        for (Benchmark benchmark : selected) {
+            System.out.println("# " + benchmark.getName());
+            Result result = runner.run(benchmark);
+            System.out.println(result);
+            results.add(result);
+        }
+
+        System.out.println();
+        System.out.println(String.format("%-45s %14s   %10s %24s %17s", "Benchmark", "Score", "Error", "Throughput",
+                "Allocation"));
+        for (Result result : results)
+            System.out.println(result);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All benchmarks known to the BenchmarkRunner.
+ */
+public class Benchmarks {
+
+    public static List<Benchmark> all() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        benchmarks.add(new PhysicsBenchmark(false));
+        benchmarks.add(new PhysicsBenchmark(true));
+
+        for (PilotBenchmark.Kind kind : PilotBenchmark.Kind.values())
+            benchmarks.add(new PilotBenchmark(kind));
+
+        for (int nbDrones : new int[]{1, 10, 20, 100}) {
+            benchmarks.add(new AirportManagerBenchmark(nbDrones, false));
+            benchmarks.add(new AirportManagerBenchmark(nbDrones, true));
+        }
+
+        for (int nbDrones : new int[]{10, 100, 1000}) {
+            benchmarks.add(new CollisionBenchmark(nbDrones, false));
+            benchmarks.add(new CollisionBenchmark(nbDrones, true));
+        }
+
+        benchmarks.add(new CodecBenchmark.Read(0));
+        benchmarks.add(new CodecBenchmark.Read(200 * 200 * 3));
+        benchmarks.add(new CodecBenchmark.Write());
+        for (int imageSize : new int[]{0, 200 * 200 * 3}) {
+            benchmarks.add(new CodecBenchmark.BufferRead(imageSize, false));
+            benchmarks.add(new CodecBenchmark.BufferRead(imageSize, true));
+            benchmarks.add(new CodecBenchmark.View(imageSize));
+        }
+        benchmarks.add(new CodecBenchmark.BufferWrite());
+
+        for (boolean sharedMemory : new boolean[]{false, true}) {
+            for (int nbDrones : new int[]{1, 10, 100}) {
+                benchmarks.add(new WireBenchmark.Module(nbDrones, sharedMemory));
+                benchmarks.add(new WireBenchmark.Batched(nbDrones, false, sharedMemory));
+                benchmarks.add(new WireBenchmark.Batched(nbDrones, true, sharedMemory));
+            }
+            benchmarks.add(new WireBenchmark.Pilot(0, sharedMemory));
+            benchmarks.add(new WireBenchmark.Pilot(200 * 200 * 3, sharedMemory));
+        }
+
+        return benchmarks;
+    }
+}
@@ -0,0 +1,176 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+import interfaces.AutopilotInputs;
+import interfaces.AutopilotInputsBufferReader;
+import interfaces.AutopilotInputsReader;
+import interfaces.AutopilotInputsView;
+import interfaces.AutopilotOutputs;
+import interfaces.AutopilotOutputsBufferWriter;
+import interfaces.AutopilotOutputsWriter;
+import utils.Utils;
+
+/**
+ * Decoding AutopilotInputs and encoding AutopilotOutputs with the generated stream and buffer codecs.
+ */
+public abstract class CodecBenchmark extends Benchmark {
+
+    protected CodecBenchmark(String name) {
+        super(name);
+    }
+
+    public static class Read extends CodecBenchmark {
+
+        private final int imageSize;
+
+        private ByteArrayInputStream bytes;
+        private DataInputStream stream;
+
+        public Read(int imageSize) {
+            super("AutopilotInputsReader.read.image" + imageSize);
+            this.imageSize = imageSize;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(imageSize);
+            data.write(new byte[imageSize]);
+            for (int i = 0; i < 7; i++)
+                data.writeFloat(i);
+
+            bytes = new ByteArrayInputStream(out.toByteArray());
+            stream = new DataInputStream(bytes);
+        }
+
+        @Override
+        public Object operation() throws Exception {
+            bytes.reset();
+            return AutopilotInputsReader.read(stream);
+        }
+    }
+
+    /**
+     * Reads from a direct buffer, into the image of the previous read if reuse is set
+     */
+    public static class BufferRead extends CodecBenchmark {
+
+        private final int imageSize;
+        private final boolean reuse;
+
+        private ByteBuffer buffer;
+        private byte[] image;
+
+        public BufferRead(int imageSize, boolean reuse) {
+            super("AutopilotInputsBufferReader.read.image" + imageSize + (reuse ? ".reuse" : ""));
+            this.imageSize = imageSize;
+            this.reuse = reuse;
+        }
+
+        @Override
+        public void setup() {
+            buffer = ByteBuffer.allocateDirect(4 + imageSize + 7 * 4);
+            buffer.putInt(imageSize);
+            buffer.put(new byte[imageSize]);
+            for (int i = 0; i < 7; i++)
+                buffer.putFloat(i);
+        }
+
+        @Override
+        public Object operation() {
+            buffer.rewind();
+            AutopilotInputs inputs = AutopilotInputsBufferReader.read(buffer, image);
+            if (reuse)
+                image = inputs.getImage();
+            return inputs;
+        }
+    }
+
+    /**
+     * Views inputs in a direct buffer and only reads the position and heading, as most pilots do
+     */
+    public static class View extends CodecBenchmark {
+
+        private final int imageSize;
+
+        private ByteBuffer buffer;
+        private AutopilotInputsView view;
+        private float sum;
+
+        public View(int imageSize) {
+            super("AutopilotInputsView.position.image" + imageSize);
+            this.imageSize = imageSize;
+        }
+
+        @Override
+        public void setup() {
+            buffer = ByteBuffer.allocateDirect(4 + imageSize + 7 * 4);
+            buffer.putInt(imageSize);
+            buffer.put(new byte[imageSize]);
+            for (int i = 0; i < 7; i++)
+                buffer.putFloat(i);
+            view = new AutopilotInputsView();
+        }
+
+        @Override
+        public Object operation() {
+            view.wrap(buffer, 0);
+            sum += view.getX() + view.getY() + view.getZ() + view.getHeading();
+            return view;
+        }
+    }
+
+    public static class Write extends CodecBenchmark {
+
+        private AutopilotOutputs outputs;
+        private ByteArrayOutputStream bytes;
+        private DataOutputStream stream;
+
+        public Write() {
+            super("AutopilotOutputsWriter.write");
+        }
+
+        @Override
+        public void setup() {
+            outputs = Utils.buildOutputs(0.1f, 0.2f, 0.3f, 0.4f, 500, 10, 20, 30);
+            bytes = new ByteArrayOutputStream(64);
+            stream = new DataOutputStream(bytes);
+        }
+
+        @Override
+        public Object operation() throws Exception {
+            bytes.reset();
+            AutopilotOutputsWriter.write(stream, outputs);
+            return bytes;
+        }
+    }
+
+    public static class BufferWrite extends CodecBenchmark {
+
+        private AutopilotOutputs outputs;
+        private ByteBuffer buffer;
+
+        public BufferWrite() {
+            super("AutopilotOutputsBufferWriter.write");
+        }
+
+        @Override
+        public void setup() {
+            outputs = Utils.buildOutputs(0.1f, 0.2f, 0.3f, 0.4f, 500, 10, 20, 30);
+            buffer = ByteBuffer.allocateDirect(64);
+        }
+
+        @Override
+        public Object operation() {
+            buffer.clear();
+            AutopilotOutputsBufferWriter.write(buffer, outputs);
+            return buffer;
+        }
+    }
+}
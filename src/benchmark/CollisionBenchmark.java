@@ -0,0 +1,112 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.joml.Vector3f;
+
+import testbed.world.helpers.CollisionGrid;
+import utils.Constants;
+import utils.FloatMath;
+
+/**
+ * Drone-drone collision detection for N drones spread through the air, with the grid broadphase
+ * of DroneHelper or with the double loop over all pairs it replaced.
+ */
+public class CollisionBenchmark extends Benchmark {
+
+    /**
+     * Space per drone in m³, about 50 m between neighbours
+     */
+    private static final float VOLUME_PER_DRONE = 125_000;
+
+    private final int nbDrones;
+    private final boolean grid;
+
+    private Map<String, Integer> droneIds;
+    private Vector3f[] positions;
+
+    private CollisionGrid collisionGrid;
+    private int[] ids;
+    private float[] flatPositions;
+    private int collisions;
+
+    public CollisionBenchmark(int nbDrones, boolean grid) {
+        super("DroneHelper.checkCollision." + (grid ? "grid." : "pairs.") + nbDrones);
+        this.nbDrones = nbDrones;
+        this.grid = grid;
+    }
+
+    @Override
+    public void setup() {
+        Random random = new Random(42);
+        float side = (float) Math.cbrt(nbDrones * VOLUME_PER_DRONE);
+
+        droneIds = new HashMap<>();
+        positions = new Vector3f[nbDrones];
+        for (int i = 0; i < nbDrones; i++) {
+            droneIds.put("drone" + i, i);
+            positions[i] = new Vector3f(random.nextFloat() * side, 50 + random.nextFloat() * side,
+                    random.nextFloat() * side);
+        }
+
+        collisionGrid = new CollisionGrid(Constants.COLLISION_RANGE);
+        ids = new int[nbDrones];
+        flatPositions = new float[3 * nbDrones];
+
+        Set<Integer> expected = pairs();
+        Set<Integer> found = new HashSet<>();
+        grid();
+        collisionGrid.findPairs(flatPositions, nbDrones, (a, b) -> {
+            found.add(ids[a]);
+            found.add(ids[b]);
+        });
+        if (!found.equals(expected))
+            throw new IllegalStateException("The grid found " + found + " instead of " + expected);
+    }
+
+    @Override
+    public Object operation() {
+        return grid ? grid() : pairs();
+    }
+
+    /**
+     * The loop over all pairs that DroneHelper used before the grid
+     */
+    private Set<Integer> pairs() {
+        Set<Integer> dronesToRemove = new HashSet<>();
+        for (int i : droneIds.values()) {
+            for (int j : droneIds.values()) {
+                if (i < j)
+                    if (FloatMath.norm(new Vector3f(positions[i]).sub(
+                            new Vector3f(positions[j]))) <= Constants.COLLISION_RANGE) {
+                        dronesToRemove.add(i);
+                        dronesToRemove.add(j);
+                    }
+            }
+        }
+        return dronesToRemove;
+    }
+
+    private int grid() {
+        int n = 0;
+        for (int droneId : droneIds.values())
+            ids[n++] = droneId;
+        Arrays.sort(ids, 0, n);
+
+        for (int i = 0; i < n; i++) {
+            Vector3f pos = positions[ids[i]];
+            flatPositions[3 * i] = pos.x;
+            flatPositions[3 * i + 1] = pos.y;
+            flatPositions[3 * i + 2] = pos.z;
+        }
+
+        collisions = 0;
+        collisionGrid.findPairs(flatPositions, n, (a, b) -> collisions++);
+        return collisions;
+    }
+}
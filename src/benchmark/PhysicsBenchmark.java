@@ -0,0 +1,69 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Vector3f;
+
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotOutputs;
+import testbed.Physics;
+import testbed.entities.airport.Airport;
+import utils.PhysicsException;
+import utils.Utils;
+
+/**
+ * One Physics.update of a single drone, either flying or standing on a runway with the brakes on.
+ */
+public class PhysicsBenchmark extends Benchmark {
+
+    private static final float DT = 0.001f;
+
+    private final boolean ground;
+
+    private AutopilotConfig config;
+    private AutopilotOutputs outputs;
+    private List<Airport> airports;
+    private Physics physics;
+
+    public PhysicsBenchmark(boolean ground) {
+        super("Physics.update." + (ground ? "ground" : "air"));
+        this.ground = ground;
+    }
+
+    @Override
+    public void setup() throws Exception {
+        config = Utils.createDefaultConfig("benchmark");
+
+        airports = new ArrayList<>();
+        airports.add(new Airport(50, 2500, new Vector3f(), 0));
+
+        if (ground)
+            outputs = Utils.buildOutputs(0, 0, 0, 0, 0, config.getRMax(), config.getRMax(), config.getRMax());
+        else
+            outputs = Utils.buildOutputs(0.1f, 0.1f, 0, 0, 1000, 0, 0, 0);
+
+        reset();
+    }
+
+    private void reset() throws PhysicsException {
+        physics = new Physics();
+        if (ground)
+            physics.init(config, new Vector3f(0, config.getTyreRadius() - config.getWheelY(), 0), new Vector3f(),
+                    0, airports);
+        else
+            physics.init(config, new Vector3f(0, 500, 0), new Vector3f(0, 0, -40), 0, airports);
+        physics.updateDrone(outputs);
+    }
+
+    @Override
+    public Object operation() throws Exception {
+        try {
+            physics.update(DT);
+        } catch (PhysicsException e) {
+            // the drone crashed or flew away, start over
+            reset();
+        }
+        return physics;
+    }
+}
@@ -0,0 +1,144 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joml.Vector3f;
+
+import autopilot.PilotPart;
+import autopilot.airports.AirportManager;
+import autopilot.airports.VirtualAirport;
+import autopilot.pilots.FlyPilot;
+import autopilot.pilots.LandingPilot;
+import autopilot.pilots.TaxiPilot;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotOutputs;
+import testbed.Physics;
+import testbed.entities.airport.Airport;
+import utils.MutableInputs;
+import utils.PhysicsException;
+import utils.Utils;
+
+/**
+ * One timePassed of a pilot. The inputs are recorded once from a closed loop of the pilot with the physics,
+ * and replayed during the measurement, so only the pilot itself is measured.
+ */
+public class PilotBenchmark extends Benchmark {
+
+    public enum Kind {FLY, LANDING, TAXI}
+
+    private static final float DT = 0.01f;
+    private static final int TRACE_LENGTH = 3000;
+
+    private static final float WIDTH = 50, LENGTH = 2500;
+
+    private final Kind kind;
+
+    private AutopilotConfig config;
+    private PilotPart pilot;
+
+    private float[] trace;
+    private int traceLength, step;
+    private float time;
+    private final MutableInputs inputs = new MutableInputs();
+
+    public PilotBenchmark(Kind kind) {
+        super(kind.name().charAt(0) + kind.name().substring(1).toLowerCase() + "Pilot.timePassed");
+        this.kind = kind;
+    }
+
+    @Override
+    public void setup() throws Exception {
+        config = Utils.createDefaultConfig("benchmark");
+
+        List<Airport> airports = new ArrayList<>();
+        airports.add(new Airport(WIDTH, LENGTH, new Vector3f(), 0));
+        airports.add(new Airport(WIDTH, LENGTH, new Vector3f(0, 0, -4000), 0));
+
+        Physics physics = new Physics();
+        switch (kind) {
+            case FLY:
+                physics.init(config, new Vector3f(0, 50, 0), new Vector3f(0, 0, -40), 0, airports);
+                break;
+            case LANDING:
+                physics.init(config, new Vector3f(0, 60, 1000), new Vector3f(0, 0, -50), 0, airports);
+                break;
+            case TAXI:
+                physics.init(config, new Vector3f(0, config.getTyreRadius() - config.getWheelY(), 0), new Vector3f(),
+                        0, airports);
+                break;
+        }
+
+        // record the inputs of the closed loop
+        trace = new float[TRACE_LENGTH * MutableInputs.SIZE];
+        pilot = createPilot();
+        traceLength = 0;
+        time = 0;
+        try {
+            while (traceLength < TRACE_LENGTH) {
+                record(physics, traceLength);
+                inputs.set(trace, traceLength * MutableInputs.SIZE, time);
+                traceLength++;
+
+                physics.updateDrone(pilot.timePassed(inputs));
+                physics.update(DT);
+                time += DT;
+            }
+        } catch (PhysicsException e) {
+            // the trace ends with the crash
+        }
+
+        if (traceLength < 10)
+            throw new IllegalStateException(getName() + " crashed after " + traceLength + " steps");
+
+        pilot = createPilot();
+        step = 0;
+        time = 0;
+    }
+
+    private PilotPart createPilot() {
+        AirportManager manager = new AirportManager();
+        manager.defineAirportParams(LENGTH, WIDTH);
+        manager.defineAirport(0, 0, 0, -1);
+        manager.defineAirport(0, -4000, 0, -1);
+
+        PilotPart pilot;
+        switch (kind) {
+            case FLY:
+                pilot = new FlyPilot(new VirtualAirport(1, new Vector3f(0, 0, -4000), 0, WIDTH, LENGTH), 100, manager, 0);
+                break;
+            case LANDING:
+                pilot = new LandingPilot(new VirtualAirport(0, new Vector3f(), 0, WIDTH, LENGTH));
+                break;
+            default:
+                pilot = new TaxiPilot(new Vector3f(200, 0, -300), 0);
+                break;
+        }
+        pilot.initialize(config);
+        return pilot;
+    }
+
+    private void record(Physics physics, int index) {
+        Vector3f pos = physics.getPosition();
+        int offset = index * MutableInputs.SIZE;
+        trace[offset] = pos.x;
+        trace[offset + 1] = pos.y;
+        trace[offset + 2] = pos.z;
+        trace[offset + 3] = physics.getHeading();
+        trace[offset + 4] = physics.getPitch();
+        trace[offset + 5] = physics.getRoll();
+    }
+
+    @Override
+    public Object operation() {
+        if (step == traceLength)
+            step = 0;
+
+        // the time keeps increasing when the trace starts over
+        time += DT;
+        inputs.set(trace, step++ * MutableInputs.SIZE, time);
+
+        AutopilotOutputs outputs = pilot.timePassed(inputs);
+        return outputs;
+    }
+}
@@ -0,0 +1,251 @@
+package benchmark;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import interfaces.Autopilot;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotInputs;
+import interfaces.AutopilotModule;
+import interfaces.AutopilotOutputs;
+import interfaces.BulkAutopilotModule;
+import utils.MutableInputs;
+import utils.MutableOutputs;
+import utils.Utils;
+import wire.AutopilotModuleServer;
+import wire.AutopilotServer;
+import wire.BatchedRemoteAutopilotModule;
+import wire.RemoteAutopilot;
+import wire.RemoteAutopilotModule;
+import wire.SharedMemoryTransport;
+import wire.SocketTransport;
+import wire.Transport;
+
+/**
+ * The wire protocol over a loopback socket or shared memory, with a server that does no work. One operation
+ * is one call of the testbed, for the module benchmarks that is one tick of all drones.
+ */
+public abstract class WireBenchmark extends Benchmark {
+
+    private final boolean sharedMemory;
+
+    private ServerSocketChannel server;
+    private Thread serverThread;
+
+    protected WireBenchmark(String name, boolean sharedMemory) {
+        super(name + (sharedMemory ? ".shm" : ""));
+        this.sharedMemory = sharedMemory;
+    }
+
+    /**
+     * Sets up a connection and serves it on a new thread.
+     *
+     * @return The client side of the connection
+     */
+    protected Transport connect(Function<Transport, Runnable> serverFactory) throws Exception {
+        Transport client, serverSide;
+        if (sharedMemory) {
+            Path file = Files.createTempFile(SharedMemoryTransport.defaultFile("wire").getParent(), "wire", "");
+            serverSide = SharedMemoryTransport.create(file, SharedMemoryTransport.DEFAULT_CAPACITY);
+            client = SharedMemoryTransport.open(file);
+        } else {
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            client = SocketTransport.connect(InetAddress.getLoopbackAddress().getHostAddress(),
+                    ((InetSocketAddress) server.getLocalAddress()).getPort());
+            serverSide = new SocketTransport(server.accept());
+        }
+
+        serverThread = new Thread(serverFactory.apply(serverSide), "wire-benchmark");
+        serverThread.setDaemon(true);
+        serverThread.start();
+        return client;
+    }
+
+    protected void disconnect() throws Exception {
+        serverThread.join();
+        if (server != null)
+            server.close();
+    }
+
+
+    /**
+     * startTimeHasPassed and completeTimeHasPassed for every drone, as the testbed calls them
+     */
+    public static class Module extends WireBenchmark {
+
+        private final int nbDrones;
+
+        private RemoteAutopilotModule module;
+        private MutableInputs inputs;
+
+        public Module(int nbDrones, boolean sharedMemory) {
+            super("RemoteAutopilotModule.drones" + nbDrones, sharedMemory);
+            this.nbDrones = nbDrones;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            module = new RemoteAutopilotModule(connect(
+                    transport -> new AutopilotModuleServer(new IdleModule(), transport)));
+            module.defineAirportParams(280, 30);
+            for (int i = 0; i < nbDrones; i++)
+                module.defineDrone(0, 0, 0, Utils.createDefaultConfig("drone" + i));
+            inputs = new MutableInputs().set(null, 1, 2, 3, 0.1f, 0.2f, 0.3f, 0);
+        }
+
+        @Override
+        public Object operation() {
+            for (int i = 0; i < nbDrones; i++)
+                module.startTimeHasPassed(i, inputs);
+
+            Object outputs = null;
+            for (int i = 0; i < nbDrones; i++)
+                outputs = module.completeTimeHasPassed(i);
+            return outputs;
+        }
+
+        @Override
+        public void tearDown() throws Exception {
+            module.simulationEnded();
+            disconnect();
+        }
+    }
+
+    /**
+     * One frame with all drones per tick, as the testbed calls a BulkAutopilotModule
+     */
+    public static class Batched extends WireBenchmark {
+
+        private final int nbDrones;
+        private final boolean pipelined;
+
+        private BatchedRemoteAutopilotModule module;
+        private int[] drones;
+        private float[] states, outputs;
+
+        public Batched(int nbDrones, boolean pipelined, boolean sharedMemory) {
+            super("BatchedRemoteAutopilotModule.drones" + nbDrones + (pipelined ? ".pipelined" : ""), sharedMemory);
+            this.nbDrones = nbDrones;
+            this.pipelined = pipelined;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            module = new BatchedRemoteAutopilotModule(connect(
+                    transport -> new AutopilotModuleServer(new IdleModule(), transport)), pipelined);
+            module.defineAirportParams(280, 30);
+            for (int i = 0; i < nbDrones; i++)
+                module.defineDrone(0, 0, 0, Utils.createDefaultConfig("drone" + i));
+
+            drones = new int[nbDrones];
+            for (int i = 0; i < nbDrones; i++)
+                drones[i] = i;
+            states = new float[nbDrones * BulkAutopilotModule.STATE_SIZE];
+            outputs = new float[nbDrones * BulkAutopilotModule.OUTPUT_SIZE];
+        }
+
+        @Override
+        public Object operation() {
+            module.timeHasPassed(drones, nbDrones, states, outputs);
+            return outputs;
+        }
+
+        @Override
+        public void tearDown() throws Exception {
+            module.simulationEnded();
+            disconnect();
+        }
+    }
+
+    /**
+     * timePassed with a camera image of the given size
+     */
+    public static class Pilot extends WireBenchmark {
+
+        private final int imageSize;
+
+        private RemoteAutopilot autopilot;
+        private MutableInputs inputs;
+
+        public Pilot(int imageSize, boolean sharedMemory) {
+            super("RemoteAutopilot.timePassed.image" + imageSize, sharedMemory);
+            this.imageSize = imageSize;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            autopilot = new RemoteAutopilot(connect(transport -> new AutopilotServer(new IdlePilot(), transport)));
+            inputs = new MutableInputs().set(new byte[imageSize], 1, 2, 3, 0.1f, 0.2f, 0.3f, 0);
+            autopilot.simulationStarted(Utils.createDefaultConfig("drone0"), inputs);
+        }
+
+        @Override
+        public Object operation() {
+            return autopilot.timePassed(inputs);
+        }
+
+        @Override
+        public void tearDown() throws Exception {
+            autopilot.simulationEnded();
+            disconnect();
+        }
+    }
+
+
+    private static final AutopilotOutputs IDLE = new MutableOutputs().set(0.1f, 0.2f, 0.3f, 0.4f, 500, 10, 20, 30);
+
+    private static class IdleModule implements AutopilotModule {
+
+        @Override
+        public void defineAirportParams(float length, float width) {
+        }
+
+        @Override
+        public void defineAirport(float centerX, float centerZ, float centerToRunway0X, float centerToRunway0Z) {
+        }
+
+        @Override
+        public void defineDrone(int airport, int gate, int pointingToRunway, AutopilotConfig config) {
+        }
+
+        @Override
+        public void startTimeHasPassed(int drone, AutopilotInputs inputs) {
+        }
+
+        @Override
+        public AutopilotOutputs completeTimeHasPassed(int drone) {
+            return IDLE;
+        }
+
+        @Override
+        public void deliverPackage(int fromAirport, int fromGate, int toAirport, int toGate) {
+        }
+
+        @Override
+        public void simulationEnded() {
+        }
+    }
+
+    private static class IdlePilot implements Autopilot {
+
+        @Override
+        public AutopilotOutputs simulationStarted(AutopilotConfig config, AutopilotInputs inputs) {
+            return IDLE;
+        }
+
+        @Override
+        public AutopilotOutputs timePassed(AutopilotInputs inputs) {
+            return IDLE;
+        }
+
+        @Override
+        public void simulationEnded() {
+        }
+    }
+}
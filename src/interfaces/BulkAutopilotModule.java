@@ -0,0 +1,28 @@
+package interfaces;
+
+/**
+ * An AutopilotModule that exchanges the inputs and outputs of all drones in one call.
+ * The testbed uses timeHasPassed instead of startTimeHasPassed and completeTimeHasPassed
+ * when the module implements this interface.
+ */
+public interface BulkAutopilotModule extends AutopilotModule {
+
+    /**
+     * x, y, z, heading, pitch, roll, elapsedTime, as in AutopilotInputs without the image
+     */
+    int STATE_SIZE = 7;
+
+    /**
+     * thrust, leftWingInclination, rightWingInclination, horStabInclination, verStabInclination,
+     * frontBrakeForce, leftBrakeForce, rightBrakeForce, as in AutopilotOutputs
+     */
+    int OUTPUT_SIZE = 8;
+
+    /**
+     * Does startTimeHasPassed and completeTimeHasPassed for the given drones.
+     * The state of drones[i] starts at states[i * STATE_SIZE], its outputs are written
+     * to outputs[i * OUTPUT_SIZE]. The drones are in ascending order, drones that have
+     * crashed are left out.
+     */
+    void timeHasPassed(int[] drones, int nbDrones, float[] states, float[] outputs);
+}
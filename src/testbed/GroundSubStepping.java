@@ -0,0 +1,95 @@
+package testbed;
+
+import utils.PhysicsException;
+
+/**
+ * Splits a step in a number of smaller steps while the wheels touch the ground.
+ * The tyre springs are very stiff, in the air one big step is enough.
+ * <p>
+ * Keeps track of the steps taken on the ground and in the air.
+ */
+public class GroundSubStepping implements Integrator {
+
+    private final Integrator integrator;
+    private final int nbSubSteps;
+
+    private int lastSubSteps, nbEvaluations;
+    private long groundSteps, airSteps;
+    private double groundTime, airTime;
+
+
+    public GroundSubStepping(Integrator integrator, int nbSubSteps) {
+        if (nbSubSteps < 1)
+            throw new IllegalArgumentException("At least one sub-step needed");
+
+        this.integrator = integrator;
+        this.nbSubSteps = nbSubSteps;
+    }
+
+
+    @Override
+    public void step(Physics physics, float dt) throws PhysicsException {
+        nbEvaluations = 0;
+
+        if (physics.wheelContact(dt)) {
+            float subDt = dt / nbSubSteps;
+            lastSubSteps = 0;
+            for (int i = 0; i < nbSubSteps; i++) {
+                lastSubSteps++;
+                integrator.step(physics, subDt);
+                nbEvaluations += integrator.getNbEvaluations();
+            }
+
+            groundSteps += nbSubSteps;
+            groundTime += dt;
+        } else {
+            lastSubSteps = 1;
+            integrator.step(physics, dt);
+            nbEvaluations = integrator.getNbEvaluations();
+
+            airSteps++;
+            airTime += dt;
+        }
+    }
+
+    @Override
+    public int getNbEvaluations() {
+        return nbEvaluations;
+    }
+
+
+    /**
+     * The number of sub-steps in the last step, 1 in the air.
+     */
+    public int getLastSubSteps() {
+        return lastSubSteps;
+    }
+
+    /**
+     * The total number of sub-steps taken on the ground.
+     */
+    public long getGroundSteps() {
+        return groundSteps;
+    }
+
+    /**
+     * The total number of steps taken in the air.
+     */
+    public long getAirSteps() {
+        return airSteps;
+    }
+
+    /**
+     * Simulated time on the ground, in seconds.
+     */
+    public double getGroundTime() {
+        return groundTime;
+    }
+
+    /**
+     * Simulated time in the air, in seconds.
+     */
+    public double getAirTime() {
+        return airTime;
+    }
+}
@@ -0,0 +1,23 @@
+package testbed;
+
+import utils.PhysicsException;
+
+/**
+ * Advances the state of a drone over one time step.
+ * An integrator may keep scratch buffers, so every Physics instance needs its own.
+ */
+public interface Integrator {
+
+    /**
+     * Moves the drone forward in time by dt, updating heading, pitch, roll and the airport location.
+     *
+     * @throws PhysicsException if an exception occurs (AOA, crash, tyre)
+     */
+    void step(Physics physics, float dt) throws PhysicsException;
+
+    /**
+     * The number of force evaluations needed for the last step.
+     */
+    int getNbEvaluations();
+
+}
@@ -0,0 +1,141 @@
+package testbed;
+
+import utils.PhysicsException;
+
+public class Integrators {
+
+    /**
+     * The integrators that can be chosen for a world, and stored in a recording of it
+     */
+    public enum Kind {
+        FORWARD_EULER, SEMI_IMPLICIT_EULER, RUNGE_KUTTA_4, RUNGE_KUTTA_45;
+
+        public Integrator create() {
+            switch (this) {
+                case SEMI_IMPLICIT_EULER:
+                    return semiImplicitEuler();
+                case RUNGE_KUTTA_4:
+                    return rungeKutta4();
+                case RUNGE_KUTTA_45:
+                    return rungeKutta45();
+                default:
+                    return forwardEuler();
+            }
+        }
+    }
+
+    /**
+     * An integrator of the given kind, that takes nbSubSteps steps while a wheel touches the ground
+     * if nbSubSteps is larger than 1.
+     */
+    public static Integrator create(Kind kind, int nbSubSteps) {
+        return nbSubSteps > 1 ? groundSubStepping(kind.create(), nbSubSteps) : kind.create();
+    }
+
+
+    /**
+     * The original integrator: rotates with the old angular velocity,
+     * then updates position and velocities with the forces at the start of the step.
+     */
+    public static Integrator forwardEuler() {
+        return new Integrator() {
+            public void step(Physics physics, float dt) throws PhysicsException {
+                physics.updateTransMat(dt);
+                physics.updateHPR();
+
+                physics.calculateForce(dt, false);
+
+                physics.updateAirportPos();
+
+                physics.integrateEuler(dt);
+            }
+
+            public int getNbEvaluations() {
+                return 1;
+            }
+        };
+    }
+
+
+    /**
+     * Updates the velocities first, and moves and rotates the drone with the new velocities.
+     * Same cost as forward euler, but a lot more stable for the tyre springs.
+     */
+    public static Integrator semiImplicitEuler() {
+        return new Integrator() {
+            private final float[] dy = new float[Physics.STATE_SIZE];
+            private final float[] delta = new float[Physics.STATE_SIZE];
+
+            public void step(Physics physics, float dt) throws PhysicsException {
+                physics.saveState();
+
+                physics.calculateForce(dt, false);
+                physics.updateAirportPos();
+                physics.getDerivative(dy);
+
+                for (int i = 0; i < 3; i++) {
+                    delta[3 + i] = dy[3 + i] * dt;
+                    delta[6 + i] = dy[6 + i] * dt;
+                    delta[i] = (dy[i] + delta[3 + i]) * dt;
+                    delta[9 + i] = 0;
+                }
+                physics.loadState(delta);
+
+                // rotation with the new angular velocity
+                physics.updateTransMat(dt);
+                physics.updateHPR();
+            }
+
+            public int getNbEvaluations() {
+                return 1;
+            }
+        };
+    }
+
+
+    /**
+     * Classic fourth order Runge-Kutta, four force evaluations per step.
+     */
+    public static Integrator rungeKutta4() {
+        return new RungeKutta(new float[][]{
+                {},
+                {1f / 2},
+                {0, 1f / 2},
+                {0, 0, 1}},
+                new float[]{1f / 6, 1f / 3, 1f / 3, 1f / 6});
+    }
+
+
+    /**
+     * Adaptive Dormand-Prince 5(4) with error control.
+     * A step is split into smaller steps until the estimated error is below
+     * absTol + relTol * |y| for every component of the state.
+     */
+    public static Integrator rungeKutta45(float relTol, float absTol) {
+        return new RungeKutta(new float[][]{
+                {},
+                {1f / 5},
+                {3f / 40, 9f / 40},
+                {44f / 45, -56f / 15, 32f / 9},
+                {19372f / 6561, -25360f / 2187, 64448f / 6561, -212f / 729},
+                {9017f / 3168, -355f / 33, 46732f / 5247, 49f / 176, -5103f / 18656},
+                {35f / 384, 0, 500f / 1113, 125f / 192, -2187f / 6784, 11f / 84}},
+                new float[]{35f / 384, 0, 500f / 1113, 125f / 192, -2187f / 6784, 11f / 84, 0},
+                new float[]{71f / 57600, 0, -71f / 16695, 71f / 1920, -17253f / 339200, 22f / 525, -1f / 40},
+                relTol, absTol);
+    }
+
+    public static Integrator rungeKutta45() {
+        return rungeKutta45(1E-4f, 1E-3f);
+    }
+
+
+    /**
+     * Takes nbSubSteps steps with the given integrator while a wheel touches the ground,
+     * and one step otherwise.
+     */
+    public static GroundSubStepping groundSubStepping(Integrator integrator, int nbSubSteps) {
+        return new GroundSubStepping(integrator, nbSubSteps);
+    }
+
+}
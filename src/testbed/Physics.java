@@ -3,11 +3,13 @@ package testbed;
 import java.util.List;
 
 import org.joml.Matrix3f;
+import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
 import interfaces.AutopilotConfig;
 import interfaces.AutopilotOutputs;
 import testbed.entities.airport.Airport;
+import utils.AirportIndex;
 import utils.FloatMath;
 import utils.PhysicsException;
 import utils.Utils;
@@ -28,6 +30,12 @@ public class Physics {
     private static final String[] WHEEL_NAMES = new String[]{"Left wheel", "Front wheel", "Right wheel"};
     private static final String[] LOCATIONS = new String[]{"", "Lane 0", "Lane 1", "Gate 0", "Gate 1"};
 
+    /**
+     * Size of the state used by the integrators: position, velocity, angular velocity
+     * and the rotation in world coordinates.
+     */
+    static final int STATE_SIZE = 12;
+
     /**
      * in world coordinates
      */
@@ -50,12 +58,37 @@ public class Physics {
     private Vector3f[] axisVectors, wingPositions, velProj, wheelPositions;
     private float[] liftSlopes, dBuffer, brakeForce;
 
+    /**
+     * Scratch buffers, reused every step so update() does not allocate.
+     */
+    private final Vector3f[] attacks;
+    private final Vector3f totalForce, totalTorque, alfa,
+            tmp, normal, veli, worldWheelPos, relPos, worldVel, droneVel, wheelForce, xDirection,
+            forward, right, headingVec, right0, up0;
+
+    /**
+     * State at the start of an integration step
+     */
+    private final Vector3f savedPos, savedVel, savedAngVel;
+    private final Matrix3f savedTransMat;
+
+    /**
+     * Quaternion orientation mode: the orientation is kept as a normalized quaternion (drone to world),
+     * transMatInv is derived from it and transMat is its transpose.
+     */
+    private boolean quaternions;
+    private final Quaternionf orientation, savedOrientation, deltaOrientation;
+
     private final boolean checkAOA;
 
+    private Integrator integrator;
+
     private AutopilotConfig config;
 
     private List<Airport> airports;
+    private AirportIndex airportIndex;
     private Airport lastAirport;
+    private int lastAirportNb;
     private int airportPos;
 
 
@@ -63,8 +96,39 @@ public class Physics {
         this.checkAOA = checkAOA;
 
         this.brakeForce = new float[]{0, 0, 0};
+
+        this.attacks = new Vector3f[]{new Vector3f(), new Vector3f(), new Vector3f(), new Vector3f()};
+        this.totalForce = new Vector3f();
+        this.totalTorque = new Vector3f();
+        this.alfa = new Vector3f();
+        this.tmp = new Vector3f();
+        this.normal = new Vector3f();
+        this.veli = new Vector3f();
+        this.worldWheelPos = new Vector3f();
+        this.relPos = new Vector3f();
+        this.worldVel = new Vector3f();
+        this.droneVel = new Vector3f();
+        this.wheelForce = new Vector3f();
+        this.xDirection = new Vector3f();
+        this.forward = new Vector3f();
+        this.right = new Vector3f();
+        this.headingVec = new Vector3f();
+        this.right0 = new Vector3f();
+        this.up0 = new Vector3f();
+
+        this.savedPos = new Vector3f();
+        this.savedVel = new Vector3f();
+        this.savedAngVel = new Vector3f();
+        this.savedTransMat = new Matrix3f();
+
+        this.orientation = new Quaternionf();
+        this.savedOrientation = new Quaternionf();
+        this.deltaOrientation = new Quaternionf();
+
+        this.integrator = Integrators.forwardEuler();
+
         try {
-            updateDrone(Utils.buildOutputs(0, 0, 0, 0, 0, 0, 0, 0));
+            updateDrone(0, 0, 0, 0, 0, 0, 0, 0);
         } catch (PhysicsException e) {
             e.printStackTrace();
         }
@@ -80,6 +144,15 @@ public class Physics {
      * and the given heading.
      */
     public void init(AutopilotConfig config, Vector3f startPos, Vector3f startVel, float startHeading, List<Airport> airports) {
+        init(config, startPos, startVel, startHeading, airports, Airport.index(airports));
+    }
+
+    /**
+     * Initialises the drone at the given position, with the given starting velocity,
+     * and the given heading. The index of the airports can be shared by all drones.
+     */
+    public void init(AutopilotConfig config, Vector3f startPos, Vector3f startVel, float startHeading,
+                     List<Airport> airports, AirportIndex airportIndex) {
         setupCalculations(config);
 
         this.config = config;
@@ -93,6 +166,7 @@ public class Physics {
         this.angVel = new Vector3f();
 
         this.airports = airports;
+        this.airportIndex = airportIndex;
 
         this.transMat = new Matrix3f().identity();
 
@@ -101,6 +175,9 @@ public class Physics {
 
         this.transMatInv = this.transMat.invert(new Matrix3f());
 
+        if (quaternions)
+            this.orientation.fromAxisAngleRad(0, 1, 0, startHeading);
+
         try {
             update(0);
         } catch (PhysicsException e) {
@@ -173,10 +250,18 @@ public class Physics {
         return new Vector3f(this.pos);
     }
 
+    public Vector3f getPosition(Vector3f dest) {
+        return dest.set(this.pos);
+    }
+
     public Vector3f getVelocity() {
         return new Vector3f(this.vel);
     }
 
+    public float getSpeed() {
+        return FloatMath.norm(this.vel);
+    }
+
     public float getHeading() {
         return this.heading;
     }
@@ -221,17 +306,57 @@ public class Physics {
         return config;
     }
 
+    public boolean usesQuaternions() {
+        return quaternions;
+    }
+
+    /**
+     * Switches between the matrix and the quaternion orientation mode.
+     */
+    public void setQuaternions(boolean quaternions) {
+        if (quaternions && !this.quaternions && transMatInv != null)
+            orientation.setFromNormalized(transMatInv).normalize();
+
+        this.quaternions = quaternions;
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Sets the integrator used by update, every drone needs its own instance.
+     */
+    public void setIntegrator(Integrator integrator) {
+        this.integrator = integrator;
+    }
+
 
     public boolean onGround() {
         return dBuffer[0] > 0 || dBuffer[1] > 0 || dBuffer[2] > 0;
     }
 
+    /**
+     * Checks if a wheel touches the ground, or will touch it within dt at the current vertical speed.
+     */
+    boolean wheelContact(float dt) {
+        if (onGround())
+            return true;
+
+        for (Vector3f wheelPosition : this.wheelPositions) {
+            float d = this.tyreRadius - this.pos.y - this.transMatInv.transform(wheelPosition, tmp).y;
+            if (d - this.vel.y * dt > 0)
+                return true;
+        }
+        return false;
+    }
+
     public Airport getAirport() {
         return lastAirport;
     }
 
     public int getAirportNb() {
-        return airports.indexOf(lastAirport);
+        return lastAirport == null ? -1 : lastAirportNb;
     }
 
     public int getAirportLocation() {
@@ -247,18 +372,33 @@ public class Physics {
      * Updates the wing inclinations and thrust of the drone
      */
     public void updateDrone(AutopilotOutputs data) throws PhysicsException {
-        this.lwIncl = data.getLeftWingInclination();
-        this.rwIncl = data.getRightWingInclination();
-        this.hsIncl = data.getHorStabInclination();
-        this.vsIncl = data.getVerStabInclination();
+        updateDrone(data.getThrust(), data.getLeftWingInclination(), data.getRightWingInclination(),
+                data.getHorStabInclination(), data.getVerStabInclination(),
+                data.getFrontBrakeForce(), data.getLeftBrakeForce(), data.getRightBrakeForce());
+    }
+
+    /**
+     * Same as updateDrone(AutopilotOutputs), with the outputs in the order of BulkAutopilotModule.OUTPUT_SIZE.
+     */
+    public void updateDrone(float[] outputs, int offset) throws PhysicsException {
+        updateDrone(outputs[offset], outputs[offset + 1], outputs[offset + 2], outputs[offset + 3],
+                outputs[offset + 4], outputs[offset + 5], outputs[offset + 6], outputs[offset + 7]);
+    }
 
-        this.thrust = data.getThrust();
+    private void updateDrone(float thrust, float lwIncl, float rwIncl, float hsIncl, float vsIncl,
+                             float frontBrake, float leftBrake, float rightBrake) throws PhysicsException {
+        this.lwIncl = lwIncl;
+        this.rwIncl = rwIncl;
+        this.hsIncl = hsIncl;
+        this.vsIncl = vsIncl;
+
+        this.thrust = thrust;
         if (thrust > maxThrust || thrust < 0)
             throw new PhysicsException("Illegal thrust force: " + thrust);
 
-        this.brakeForce[0] = data.getLeftBrakeForce();
-        this.brakeForce[1] = data.getFrontBrakeForce();
-        this.brakeForce[2] = data.getRightBrakeForce();
+        this.brakeForce[0] = leftBrake;
+        this.brakeForce[1] = frontBrake;
+        this.brakeForce[2] = rightBrake;
         for (int i = 0; i < 3; i++) {
             if (brakeForce[i] < 0 || brakeForce[i] > this.maxR)
                 throw new PhysicsException("Illegal brake force on " + WHEEL_NAMES[i] + " (" + FloatMath.round(brakeForce[i], 2) + ")");
@@ -272,56 +412,142 @@ public class Physics {
      * @throws PhysicsException if an exception occurs (AOA, crash, tyre)
      */
     public void update(float dt) throws PhysicsException {
-        updateTransMat(dt);
-        updateHPR();
+        integrator.step(this, dt);
+
+        checkCrash();
+    }
 
-        Vector3f[] forceTorque = calculateForce(dt);
 
-        updateAirportPos();
+    /**
+     * Forward euler step with the forces of the last calculateForce call.
+     */
+    void integrateEuler(float dt) {
+        this.pos.add(vel.mul(dt, tmp));
+        this.vel.add(transMatInv.transform(totalForce, tmp).mul(dt / this.weight));
+        this.angVel.add(calculateAlfa(totalTorque).mul(dt));
+    }
 
-        // forward euler
-        this.pos.add(vel.mul(dt, new Vector3f()));
-        this.vel.add(FloatMath.transform(transMatInv, forceTorque[0]).mul(dt / this.weight));
-        this.angVel.add(calculateAlfa(forceTorque[1]).mul(dt));
+    /**
+     * Stores the current state, loadState starts from this state.
+     */
+    void saveState() {
+        savedPos.set(pos);
+        savedVel.set(vel);
+        savedAngVel.set(angVel);
+        savedTransMat.set(transMat);
+        savedOrientation.set(orientation);
+    }
 
-        checkCrash();
+    /**
+     * Sets the state to the saved state plus the given change,
+     * in the same layout as getDerivative.
+     */
+    void loadState(float[] delta) {
+        pos.set(savedPos).add(delta[0], delta[1], delta[2]);
+        vel.set(savedVel).add(delta[3], delta[4], delta[5]);
+        angVel.set(savedAngVel).add(delta[6], delta[7], delta[8]);
+
+        transMat.set(savedTransMat);
+        orientation.set(savedOrientation);
+        tmp.set(delta[9], delta[10], delta[11]);
+        float norm = FloatMath.norm(tmp);
+        if (Math.abs(norm) > 1E-6)
+            rotate(norm, tmp.normalize());
+        else if (quaternions)
+            transMat.transpose(transMatInv);
+        else
+            transMat.invert(transMatInv);
+    }
+
+    /**
+     * Copies the current state in y, with a zero rotation.
+     */
+    void getState(float[] y) {
+        y[0] = pos.x;
+        y[1] = pos.y;
+        y[2] = pos.z;
+        y[3] = vel.x;
+        y[4] = vel.y;
+        y[5] = vel.z;
+        y[6] = angVel.x;
+        y[7] = angVel.y;
+        y[8] = angVel.z;
+        y[9] = y[10] = y[11] = 0;
+    }
+
+    /**
+     * Writes the time derivative of the state in dy, using the forces of the last calculateForce call:
+     * velocity, acceleration (world), angular acceleration (drone) and angular velocity (world).
+     */
+    void getDerivative(float[] dy) {
+        dy[0] = vel.x;
+        dy[1] = vel.y;
+        dy[2] = vel.z;
+
+        transMatInv.transform(totalForce, tmp).div(weight);
+        dy[3] = tmp.x;
+        dy[4] = tmp.y;
+        dy[5] = tmp.z;
+
+        calculateAlfa(totalTorque);
+        dy[6] = alfa.x;
+        dy[7] = alfa.y;
+        dy[8] = alfa.z;
+
+        transMatInv.transform(angVel, tmp);
+        dy[9] = tmp.x;
+        dy[10] = tmp.y;
+        dy[11] = tmp.z;
     }
 
 
     /**
      * Updates the transformation matrix, it rotates with the drone's angular velocity.
      */
-    private void updateTransMat(float dt) {
-        Vector3f rotation = FloatMath.transform(this.transMatInv, this.angVel.mul(dt, new Vector3f()));
+    void updateTransMat(float dt) {
+        Vector3f rotation = this.transMatInv.transform(this.angVel.mul(dt, tmp), tmp);
 
         float norm = FloatMath.norm(rotation);
         if (Math.abs(norm) > 1E-6) {
-            this.transMat.rotate(-norm, rotation.normalize());
-            this.transMatInv = this.transMat.invert(new Matrix3f());
+            rotate(norm, rotation.normalize());
+        }
+    }
+
+    /**
+     * Rotates the drone over the given angle around an axis in world coordinates.
+     */
+    private void rotate(float angle, Vector3f axis) {
+        if (quaternions) {
+            deltaOrientation.fromAxisAngleRad(axis, angle).mul(orientation, orientation).normalize();
+            orientation.get(transMatInv);
+            transMatInv.transpose(transMat);
+        } else {
+            transMat.rotate(-angle, axis);
+            transMat.invert(transMatInv);
         }
     }
 
     /**
      * Updates heading, pitch and roll
      */
-    private void updateHPR() {
-        Vector3f F = FloatMath.transform(transMatInv, new Vector3f(0, 0, -1)),
-                R = FloatMath.transform(transMatInv, new Vector3f(1, 0, 0));
+    void updateHPR() {
+        Vector3f F = transMatInv.transform(0, 0, -1, forward),
+                R = transMatInv.transform(1, 0, 0, right);
 
-        Vector3f H = F.normalize(new Vector3f());
-        H.mul(new Vector3f(1, 0, 1));
+        Vector3f H = F.normalize(headingVec);
+        H.mul(1, 0, 1);
 
-        Vector3f R0 = FloatMath.cross(H, new Vector3f(0, 1, 0));
-        Vector3f U0 = FloatMath.cross(R0, F);
+        Vector3f R0 = H.cross(0, 1, 0, right0);
+        Vector3f U0 = R0.cross(F, up0);
 
         this.heading = FloatMath.atan2(H.dot(-1, 0, 0), H.dot(0, 0, -1));
         this.pitch = FloatMath.atan2(F.dot(0, 1, 0), F.dot(H));
         this.roll = FloatMath.atan2(R.dot(U0), R.dot(R0));
     }
 
-    private void updateAirportPos() {
+    void updateAirportPos() {
         if (onGround()) {
-            Vector3f diff = this.pos.sub(lastAirport.getPosition(), new Vector3f());
+            Vector3f diff = this.pos.sub(lastAirport.getPosition(), tmp);
             float len = diff.dot(lastAirport.getDirection()),
                     wid = diff.dot(lastAirport.getPerpDirection());
 
@@ -340,30 +566,31 @@ public class Physics {
     }
 
     /**
-     * Calculates total force and torque, in drone coordinates
+     * Calculates total force and torque, in drone coordinates.
+     * The results are stored in totalForce and totalTorque.
      *
-     * @return {force, torque}
+     * @param analyticDamping use the vertical velocity of the wheels for the tyre damping,
+     *                        instead of the change in compression since the previous call
      */
-    private Vector3f[] calculateForce(float dt) throws PhysicsException {
+    void calculateForce(float dt, boolean analyticDamping) throws PhysicsException {
 
         // thrust & weight
-        Vector3f thrustV = new Vector3f(0, 0, -this.thrust);
-        Vector3f weightDrone = FloatMath.transform(this.transMat, this.weightWorld);
+        Vector3f weightDrone = this.transMat.transform(this.weightWorld, tmp);
 
-        Vector3f totalForce = (new Vector3f()).add(thrustV).add(weightDrone);
-        Vector3f totalTorque = new Vector3f(0, 0, 0);
+        totalForce.set(0, 0, 0).add(0, 0, -this.thrust).add(weightDrone);
+        totalTorque.set(0, 0, 0);
 
 
         // wings
-        Vector3f[] attacks = new Vector3f[]{new Vector3f(0, FloatMath.sin(this.lwIncl), -FloatMath.cos(this.lwIncl)),
-                new Vector3f(0, FloatMath.sin(this.rwIncl), -FloatMath.cos(this.rwIncl)),
-                new Vector3f(0, FloatMath.sin(this.hsIncl), -FloatMath.cos(this.hsIncl)),
-                new Vector3f(-FloatMath.sin(this.vsIncl), 0, -FloatMath.cos(this.vsIncl))};
+        attacks[0].set(0, FloatMath.sin(this.lwIncl), -FloatMath.cos(this.lwIncl));
+        attacks[1].set(0, FloatMath.sin(this.rwIncl), -FloatMath.cos(this.rwIncl));
+        attacks[2].set(0, FloatMath.sin(this.hsIncl), -FloatMath.cos(this.hsIncl));
+        attacks[3].set(-FloatMath.sin(this.vsIncl), 0, -FloatMath.cos(this.vsIncl));
 
         for (int i = 0; i < 4; i++) {
-            Vector3f normal = FloatMath.cross(axisVectors[i], attacks[i]);
+            axisVectors[i].cross(attacks[i], normal);
 
-            Vector3f veli = FloatMath.transform(this.transMat, this.vel).add(FloatMath.cross(this.angVel, this.wingPositions[i]));
+            this.transMat.transform(this.vel, veli).add(this.angVel.cross(this.wingPositions[i], tmp));
             veli.mul(this.velProj[i]); // projecteren op vlak loodrecht op axis
 
             float aoa = -FloatMath.atan2(veli.dot(normal), veli.dot(attacks[i]));
@@ -371,22 +598,22 @@ public class Physics {
             Vector3f force = normal.mul(this.liftSlopes[i] * aoa * FloatMath.squareNorm(veli));
 
             if (checkAOA && dt != 0 && FloatMath.norm(force) > 50 && Math.abs(aoa) > maxAOA)
-                throw new PhysicsException(WING_NAMES[i] + " exceeded maximum aoa (" + FloatMath.round(FloatMath.toDegrees(aoa), 2) + "�)");
+                throw new PhysicsException(WING_NAMES[i] + " exceeded maximum aoa (" + FloatMath.round(FloatMath.toDegrees(aoa), 2) + "°)");
 
             totalForce.add(force);
-            totalTorque.add(FloatMath.cross(this.wingPositions[i], force));
+            totalTorque.add(this.wingPositions[i].cross(force, tmp));
         }
 
 
         // wheels
         for (int i = 0; i < 3; i++) {
-            Vector3f worldWheelPos = this.pos.add(FloatMath.transform(this.transMatInv, this.wheelPositions[i]), new Vector3f());
+            this.pos.add(this.transMatInv.transform(this.wheelPositions[i], tmp), worldWheelPos);
 
             float d = this.tyreRadius - worldWheelPos.y;
 
             worldWheelPos.y = 0;
 
-            Vector3f relPos = FloatMath.transform(this.transMat, worldWheelPos.sub(this.pos, new Vector3f()));
+            this.transMat.transform(worldWheelPos.sub(this.pos, relPos), relPos);
 
             if (d >= this.tyreRadius)
                 throw new PhysicsException(WHEEL_NAMES[i] + " went underground. (" + FloatMath.round(d, 2) + ")");
@@ -394,30 +621,37 @@ public class Physics {
             if (d > 0) { // op de grond?
                 // lift
 
-                float dD = (d - dBuffer[i]) / dt,
-                        forceY = this.tyreSlope * d + this.dampSlope * dD;
+                float dD;
+                if (analyticDamping) {
+                    this.vel.add(this.transMatInv.transform(this.angVel.cross(this.wheelPositions[i], tmp), tmp), worldVel);
+                    dD = -worldVel.y;
+                } else {
+                    dD = (d - dBuffer[i]) / dt;
+                }
+
+                float forceY = this.tyreSlope * d + this.dampSlope * dD;
 
                 dBuffer[i] = d;
 
                 if (forceY > 0) {
-                    Vector3f liftForce = FloatMath.transform(transMat, new Vector3f(0, forceY, 0));
+                    Vector3f liftForce = transMat.transform(0, forceY, 0, wheelForce);
 
                     totalForce.add(liftForce);
-                    totalTorque.add(FloatMath.cross(relPos, liftForce));
+                    totalTorque.add(relPos.cross(liftForce, tmp));
                 } else {
                     forceY = 0;
                 }
 
                 // remmen
-                Vector3f worldVel = this.vel.add(FloatMath.transform(this.transMatInv, FloatMath.cross(this.angVel, this.wheelPositions[i])), new Vector3f());
+                this.vel.add(this.transMatInv.transform(this.angVel.cross(this.wheelPositions[i], tmp), tmp), worldVel);
                 worldVel.y = 0;
-                Vector3f droneVel = FloatMath.transform(this.transMat, worldVel);
+                this.transMat.transform(worldVel, droneVel);
 
                 Vector3f brakeForce;
                 if (FloatMath.norm(droneVel) > 0) {
-                    brakeForce = droneVel.normalize(new Vector3f()).mul(-this.brakeForce[i]);
+                    brakeForce = droneVel.normalize(wheelForce).mul(-this.brakeForce[i]);
                 } else {
-                    Vector3f direction = totalForce.normalize(new Vector3f());
+                    Vector3f direction = totalForce.normalize(wheelForce);
                     float norm = FloatMath.norm(totalForce);
 
                     if (norm <= this.brakeForce[i]) {
@@ -428,39 +662,35 @@ public class Physics {
                 }
 
                 totalForce.add(brakeForce);
-                totalTorque.add(FloatMath.cross(relPos, brakeForce));
+                totalTorque.add(relPos.cross(brakeForce, tmp));
 
 
                 // wrijving
                 if (i != 1) {
-                    Vector3f xDirection = FloatMath.transform(this.transMatInv, new Vector3f(1, 0, 0));
+                    this.transMatInv.transform(1, 0, 0, xDirection);
                     xDirection.y = 0;
 
                     float lateralVel = worldVel.dot(xDirection);
 
-                    xDirection = FloatMath.transform(this.transMat, xDirection);
+                    this.transMat.transform(xDirection, xDirection);
                     xDirection.normalize();
 
                     Vector3f frictionForce = xDirection.mul(-this.maxFC * lateralVel * forceY);
                     totalForce.add(frictionForce);
-                    totalTorque.add(FloatMath.cross(relPos, frictionForce));
+                    totalTorque.add(relPos.cross(frictionForce, tmp));
                 }
 
                 // landingsbaan
                 boolean groundCheck = false;
                 if (lastAirport == null) {
-                    for (Airport airport : airports) {
-                        Vector3f diff = worldWheelPos.sub(airport.getPosition(), new Vector3f());
-
-                        if (Math.abs(diff.dot(airport.getDirection())) <= airport.getWidth() + airport.getLength() &&
-                                Math.abs(diff.dot(airport.getPerpDirection())) <= airport.getWidth()) {
-                            lastAirport = airport;
-                            groundCheck = true;
-                            break;
-                        }
+                    int j = airportIndex.find(worldWheelPos.x, worldWheelPos.z);
+                    if (j >= 0) {
+                        lastAirport = airports.get(j);
+                        lastAirportNb = j;
+                        groundCheck = true;
                     }
                 } else {
-                    Vector3f diff = worldWheelPos.sub(lastAirport.getPosition(), new Vector3f());
+                    Vector3f diff = worldWheelPos.sub(lastAirport.getPosition(), tmp);
 
                     if (Math.abs(diff.dot(lastAirport.getDirection())) <= lastAirport.getWidth() + lastAirport.getLength() &&
                             Math.abs(diff.dot(lastAirport.getPerpDirection())) <= lastAirport.getWidth())
@@ -474,8 +704,6 @@ public class Physics {
                 dBuffer[i] = 0;
             }
         }
-
-        return new Vector3f[]{totalForce, totalTorque};
     }
 
 
@@ -483,8 +711,8 @@ public class Physics {
      * Calulates the rotational acceleration, in drone coordinates
      */
     private Vector3f calculateAlfa(Vector3f torque) {
-        Vector3f part1 = FloatMath.cross(this.angVel, FloatMath.transform(this.inertia, this.angVel));
-        return FloatMath.transform(this.inertiaInv, torque.add(part1, new Vector3f()));
+        Vector3f part1 = this.angVel.cross(this.inertia.transform(this.angVel, tmp), tmp);
+        return this.inertiaInv.transform(torque.add(part1, alfa), alfa);
     }
 
 
@@ -493,22 +721,22 @@ public class Physics {
      */
     private void checkCrash() throws PhysicsException {
         // left wing
-        Vector3f worldPos = this.pos.add(FloatMath.transform(this.transMatInv, this.wingPositions[0]), new Vector3f());
+        Vector3f worldPos = this.pos.add(this.transMatInv.transform(this.wingPositions[0], tmp), tmp);
         if (worldPos.y <= 0)
             throw new PhysicsException("Left wing hit the ground");
 
         // right wing
-        worldPos = this.pos.add(FloatMath.transform(this.transMatInv, this.wingPositions[1]), new Vector3f());
+        worldPos = this.pos.add(this.transMatInv.transform(this.wingPositions[1], tmp), tmp);
         if (worldPos.y <= 0)
             throw new PhysicsException("Right wing hit the ground");
 
         // tail
-        worldPos = this.pos.add(FloatMath.transform(this.transMatInv, this.wingPositions[2]), new Vector3f());
+        worldPos = this.pos.add(this.transMatInv.transform(this.wingPositions[2], tmp), tmp);
         if (worldPos.y <= 0)
             throw new PhysicsException("Tail hit the ground");
 
         // engine
-        worldPos = this.pos.add(FloatMath.transform(this.transMatInv, this.enginePos), new Vector3f());
+        worldPos = this.pos.add(this.transMatInv.transform(this.enginePos, tmp), tmp);
         if (worldPos.y <= 0)
             throw new PhysicsException("Engine hit the ground");
     }
@@ -0,0 +1,152 @@
+package testbed;
+
+import utils.PhysicsException;
+
+/**
+ * Explicit Runge-Kutta integrator, defined by its Butcher tableau.
+ * With error weights the step size is adapted, otherwise every update is one step.
+ * <p>
+ * The tyre damping uses the vertical velocity of the wheels, because the intermediate
+ * stages have no previous compression to compare with.
+ */
+class RungeKutta implements Integrator {
+
+    /**
+     * Smallest step as a fraction of dt, steps this small are always accepted.
+     */
+    private static final float MIN_STEP = 1E-3f;
+
+    private static final float SAFETY = 0.9f;
+    private static final float MIN_SCALE = 0.2f;
+    private static final float MAX_SCALE = 5f;
+
+    private final float[][] a;
+    private final float[] b, e;
+    private final float relTol, absTol;
+
+    private final float[][] k;
+    private final float[] delta, y;
+
+    /**
+     * Step size of the last accepted step
+     */
+    private float h;
+
+    private int nbEvaluations;
+
+
+    RungeKutta(float[][] a, float[] b) {
+        this(a, b, null, 0, 0);
+    }
+
+    RungeKutta(float[][] a, float[] b, float[] e, float relTol, float absTol) {
+        this.a = a;
+        this.b = b;
+        this.e = e;
+        this.relTol = relTol;
+        this.absTol = absTol;
+
+        this.k = new float[b.length][Physics.STATE_SIZE];
+        this.delta = new float[Physics.STATE_SIZE];
+        this.y = new float[Physics.STATE_SIZE];
+    }
+
+
+    @Override
+    public void step(Physics physics, float dt) throws PhysicsException {
+        nbEvaluations = 0;
+        physics.saveState();
+
+        if (e == null) {
+            stages(physics, dt);
+            combine(b, dt);
+            physics.loadState(delta);
+        } else {
+            adaptiveStep(physics, dt);
+        }
+
+        physics.updateHPR();
+        physics.updateAirportPos();
+    }
+
+    @Override
+    public int getNbEvaluations() {
+        return nbEvaluations;
+    }
+
+
+    private void adaptiveStep(Physics physics, float dt) throws PhysicsException {
+        if (h <= 0 || h > dt)
+            h = dt;
+
+        float minStep = dt * MIN_STEP;
+        float t = 0;
+        while (dt - t > minStep * 1E-3f) {
+            float step = Math.min(h, dt - t);
+
+            float error;
+            try {
+                stages(physics, step);
+                error = error(physics, step);
+            } catch (PhysicsException ex) {
+                // a too large trial step can push a wheel underground, retry with a smaller one
+                if (step <= minStep)
+                    throw ex;
+                h = Math.max(step * MIN_SCALE, minStep);
+                continue;
+            }
+
+            if (error <= 1 || step <= minStep) {
+                combine(b, step);
+                physics.loadState(delta);
+                physics.saveState();
+                t += step;
+            }
+
+            float scale = error == 0 ? MAX_SCALE : SAFETY * (float) Math.pow(error, -0.2);
+            h = Math.max(step * Math.min(MAX_SCALE, Math.max(MIN_SCALE, scale)), minStep);
+        }
+    }
+
+    /**
+     * Evaluates all stages of one step of size h, starting from the saved state.
+     */
+    private void stages(Physics physics, float h) throws PhysicsException {
+        for (int s = 0; s < b.length; s++) {
+            combine(a[s], h);
+            physics.loadState(delta);
+
+            physics.calculateForce(h, true);
+            physics.getDerivative(k[s]);
+            nbEvaluations++;
+        }
+    }
+
+    /**
+     * delta = h * sum(weights[j] * k[j])
+     */
+    private void combine(float[] weights, float h) {
+        for (int i = 0; i < Physics.STATE_SIZE; i++) {
+            float sum = 0;
+            for (int j = 0; j < weights.length; j++)
+                sum += weights[j] * k[j][i];
+            delta[i] = h * sum;
+        }
+    }
+
+    /**
+     * The largest error relative to the tolerance, the step is accepted if this is at most 1.
+     */
+    private float error(Physics physics, float h) {
+        physics.getState(y);
+        combine(e, h);
+
+        float max = 0;
+        for (int i = 0; i < Physics.STATE_SIZE; i++) {
+            float error = Math.abs(delta[i]) / (absTol + relTol * Math.abs(y[i]));
+            if (error > max)
+                max = error;
+        }
+        return max;
+    }
+}
@@ -0,0 +1,228 @@
+package testbed.engine;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import testbed.world.World;
+import utils.Constants;
+
+/**
+ * Runs the same world headless for many package generator seeds at once, one world per thread,
+ * and writes a summary of every run and of all runs together.
+ * <p>
+ * Every run has its own world, autopilot module and engine, so runs do not influence each other and
+ * every seed gives the same results as a single {@link HeadlessEngine} run of that seed.
+ * <p>
+ * Usage: BatchRunner [world] [seeds] [simulated seconds] [output file] [first seed],
+ * e.g. BatchRunner RandomWorld 64 600 results.csv
+ * <br>
+ * The world needs a constructor that takes the seed as a long. A .json output file gives json, anything else csv.
+ */
+public class BatchRunner {
+
+    private static final String[] COLUMNS = {"seed", "simulatedTime", "wallTime", "drones", "dronesLeft",
+            "dronesCrashed", "packagesRequested", "packagesDelivered", "packagesLost", "deliveriesPerHour", "crashRate"};
+
+    /**
+     * Results of a single run
+     */
+    public static class Result {
+
+        private final long seed;
+        private final double[] values;
+
+        private Result(long seed, double[] values) {
+            this.seed = seed;
+            this.values = values;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return The values in the order of the columns, starting with the seed
+         */
+        public double[] getValues() {
+            return values;
+        }
+    }
+
+
+    private final String worldName;
+    private final float duration;
+    private final float interval;
+    private final int threads;
+
+    /**
+     * @param worldName Simple name of a world in testbed.world.premade
+     * @param duration  Simulated time of every run in seconds
+     * @param interval  The fixed time step of every run
+     * @param threads   Number of runs at the same time
+     */
+    public BatchRunner(String worldName, float duration, float interval, int threads) {
+        this.worldName = worldName;
+        this.duration = duration;
+        this.interval = interval;
+        this.threads = threads;
+    }
+
+
+    /**
+     * Runs the seeds firstSeed until firstSeed + nbSeeds
+     *
+     * @return The results, in the order of the seeds
+     */
+    public List<Result> run(long firstSeed, int nbSeeds) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, nbSeeds)));
+
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < nbSeeds; i++) {
+                long seed = firstSeed + i;
+                futures.add(executor.submit(() -> runSeed(seed)));
+            }
+
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures)
+                results.add(future.get());
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Result runSeed(long seed) throws Exception {
+        World world = (World) Class.forName("testbed.world.premade." + worldName)
+                .getConstructor(long.class).newInstance(seed);
+
+        HeadlessEngine engine = new HeadlessEngine(world, interval);
+        engine.run(duration);
+
+        // the drones are only known after the world was set up
+        int left = world.getNbDrones(), crashed = world.getNbCrashedDrones();
+        int drones = left + crashed;
+        float time = engine.getSimulationTime();
+
+        return new Result(seed, new double[]{seed, time, engine.getWallTime(), drones, left, crashed,
+                world.getNbRequestedPackages(), world.getNbDeliveredPackages(), world.getNbLostPackages(),
+                time > 0 ? world.getNbDeliveredPackages() * 3600 / time : 0,
+                drones > 0 ? (double) crashed / drones : 0});
+    }
+
+
+    /**
+     * Mean, minimum and maximum of every column
+     */
+    private static double[][] aggregate(List<Result> results) {
+        double[][] stats = new double[3][COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            stats[1][c] = Double.POSITIVE_INFINITY;
+            stats[2][c] = Double.NEGATIVE_INFINITY;
+        }
+
+        for (Result result : results) {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                double value = result.getValues()[c];
+                stats[0][c] += value / results.size();
+                stats[1][c] = Math.min(stats[1][c], value);
+                stats[2][c] = Math.max(stats[2][c], value);
+            }
+        }
+        return stats;
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value))
+            return Long.toString((long) value);
+        return String.format(Locale.ROOT, "%.4f", value);
+    }
+
+    private static void writeCsv(PrintWriter out, List<Result> results, double[][] stats) {
+        out.println(String.join(",", COLUMNS));
+        for (Result result : results)
+            out.println(row(result.getValues(), format(result.getSeed())));
+
+        String[] names = {"mean", "min", "max"};
+        for (int i = 0; i < stats.length; i++)
+            out.println(row(stats[i], names[i]));
+    }
+
+    private static String row(double[] values, String first) {
+        StringBuilder builder = new StringBuilder(first);
+        for (int c = 1; c < values.length; c++)
+            builder.append(',').append(format(values[c]));
+        return builder.toString();
+    }
+
+    private static void writeJson(PrintWriter out, String worldName, float duration, List<Result> results,
+                                  double[][] stats) {
+        out.println("{");
+        out.println("  \"world\": \"" + worldName + "\",");
+        out.println("  \"duration\": " + format(duration) + ",");
+        out.println("  \"runs\": [");
+        for (int i = 0; i < results.size(); i++)
+            out.println("    " + object(results.get(i).getValues(), 0) + (i < results.size() - 1 ? "," : ""));
+        out.println("  ],");
+        out.println("  \"mean\": " + object(stats[0], 1) + ",");
+        out.println("  \"min\": " + object(stats[1], 1) + ",");
+        out.println("  \"max\": " + object(stats[2], 1));
+        out.println("}");
+    }
+
+    private static String object(double[] values, int first) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int c = first; c < values.length; c++) {
+            if (c > first)
+                builder.append(", ");
+            builder.append('"').append(COLUMNS[c]).append("\": ").append(format(values[c]));
+        }
+        return builder.append('}').toString();
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        // has to be set before any awt class is loaded, the guis and dialogs check this
+        System.setProperty("java.awt.headless", "true");
+
+        String worldName = args.length > 0 ? args[0] : "RandomWorld";
+        int nbSeeds = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        float duration = args.length > 2 ? Float.parseFloat(args[2]) : 600;
+        String output = args.length > 3 ? args[3] : null;
+        long firstSeed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+
+        BatchRunner runner = new BatchRunner(worldName, duration, 1f / Constants.TARGET_UPS,
+                Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        List<Result> results = runner.run(firstSeed, nbSeeds);
+        double wallTime = (System.nanoTime() - start) / 1E9;
+
+        double[][] stats = aggregate(results);
+
+        PrintWriter console = new PrintWriter(System.out, true);
+        writeCsv(console, results, stats);
+        console.println(worldName + ": " + nbSeeds + " runs of " + duration + " simulated seconds in "
+                + (float) wallTime + " s");
+
+        if (output != null) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8))) {
+                if (output.endsWith(".json"))
+                    writeJson(out, worldName, duration, results, stats);
+                else
+                    writeCsv(out, results, stats);
+            } catch (IOException e) {
+                System.err.println("Could not write " + output + ": " + e.getMessage());
+            }
+        }
+    }
+}
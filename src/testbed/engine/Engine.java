@@ -3,6 +3,7 @@ package testbed.engine;
 import java.awt.Dimension;
 import java.awt.Toolkit;
 
+import testbed.graphics.meshes.Mesh;
 import utils.IO.MouseInput;
 import utils.Constants;
 import utils.Timer;
@@ -22,17 +23,37 @@ public class Engine implements Runnable {
 
     private final MouseInput mouseInput;
 
-    private boolean shouldExit = false;
+    private volatile boolean shouldExit = false;
+
+    /**
+     * Updates the world on its own thread, null when update and render share the game loop thread
+     */
+    private final Thread simulationThread;
+
+    /**
+     * Simulated seconds per real second, MAX_SPEED to update as fast as possible
+     */
+    public static final float MAX_SPEED = Float.POSITIVE_INFINITY;
+
+    private volatile float timeWarp = Constants.SPEED;
+
+    /**
+     * At most this many real seconds of updates are caught up when the simulation thread falls behind
+     */
+    private static final float MAX_BACKLOG = 0.25f;
 
     /**
      * Engine constructor
      *
-     * @param windowTitle The tile given to the window
-     * @param vSync       Whether vSync is enabled or not
-     * @param worldRules  The interface that the world has to follow
+     * @param windowTitle      The tile given to the window
+     * @param vSync            Whether vSync is enabled or not
+     * @param worldRules       The interface that the world has to follow
+     * @param simulationThread Whether the world is updated on its own thread, the game loop thread then only
+     *                         handles input and renders the latest state of the world
      */
-    public Engine(String windowTitle, boolean vSync, IWorldRules worldRules) {
+    public Engine(String windowTitle, boolean vSync, IWorldRules worldRules, boolean simulationThread) {
         gameLoopThread = new Thread(this, "GAME_LOOP_THREAD");
+        this.simulationThread = simulationThread ? new Thread(this::simulationLoop, "SIMULATION_THREAD") : null;
 
         int ubuntuSiderBar = 0, windowsToolBar = 0;
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
@@ -52,6 +73,10 @@ public class Engine implements Runnable {
         timer = new Timer();
     }
 
+    public Engine(String windowTitle, boolean vSync, IWorldRules worldRules) {
+        this(windowTitle, vSync, worldRules, false);
+    }
+
     /**
      * Game loop start
      */
@@ -63,7 +88,10 @@ public class Engine implements Runnable {
     public void run() {
         try {
             init();
-            gameLoop();
+            if (simulationThread == null)
+                gameLoop();
+            else
+                renderLoop();
         } catch (Exception excp) {
             excp.printStackTrace();
         } finally {
@@ -75,6 +103,7 @@ public class Engine implements Runnable {
      * Initialize all programs used in this world
      */
     protected void init() {
+        Mesh.setGlThread(Thread.currentThread());
         window.init();
         timer.init();
         mouseInput.init(window);
@@ -86,11 +115,37 @@ public class Engine implements Runnable {
     }
 
     /**
-     * elapsedTime: time since last loop in seconds
+     * Whether update is called on the simulation thread instead of the game loop thread
+     */
+    public boolean hasSimulationThread() {
+        return simulationThread != null;
+    }
+
+    /**
+     * Sets how fast the simulation runs compared to real time, can be changed while running.
+     *
+     * @param timeWarp Simulated seconds per real second, or MAX_SPEED
+     */
+    public void setTimeWarp(float timeWarp) {
+        if (!(timeWarp > 0))
+            throw new IllegalArgumentException("Time warp has to be positive");
+        this.timeWarp = timeWarp;
+    }
+
+    public float getTimeWarp() {
+        return timeWarp;
+    }
+
+    /**
+     * elapsedTime: time since last loop in seconds, multiplied by the time warp
      * accumulator: total elapsed time since last update
      * interval: how often we should update
      * -> when accumulator exceeds interval an update occurs
      * <p>
+     * In max speed mode we update as often as possible until the next frame is due.
+     * In both cases the updates stop when a frame takes longer than a frame slot,
+     * the simulation then runs slower than asked instead of falling further and further behind.
+     * <p>
      * render(): will render the objects in the world
      * <p>
      * vsync(): depending on whether we have vsync on, sync yourself.
@@ -99,17 +154,33 @@ public class Engine implements Runnable {
         float elapsedTime;
         float accumulator = 0f;
         float interval = 1f / Constants.TARGET_UPS;
+        float loopSlot = 1f / Constants.TARGET_FPS;
 
 
         while (!window.windowShouldClose() && !shouldExit) {
-            elapsedTime = timer.getElapsedTime() * Constants.SPEED;
-            accumulator += elapsedTime;
+            float warp = timeWarp;
+            elapsedTime = timer.getElapsedTime();
+            double frameEnd = timer.getLastLoopTime() + loopSlot;
 
             input();
 
-            while (accumulator >= interval) {
-                update(interval);
-                accumulator -= interval;
+            if (warp == MAX_SPEED) {
+                accumulator = 0;
+                do {
+                    update(interval);
+                } while (!shouldExit && timer.getTime() < frameEnd);
+            } else {
+                accumulator += elapsedTime * warp;
+
+                while (accumulator >= interval && !shouldExit) {
+                    update(interval);
+                    accumulator -= interval;
+
+                    if (timer.getTime() >= frameEnd) {
+                        accumulator = Math.min(accumulator, interval);
+                        break;
+                    }
+                }
             }
 
             if (shouldExit)
@@ -124,6 +195,73 @@ public class Engine implements Runnable {
         worldRules.endSimulation();
     }
 
+    /**
+     * The game loop thread only handles input and renders, at the frame rate of the window.
+     * The world is updated on the simulation thread, so slow rendering does not slow down the simulation.
+     */
+    protected void renderLoop() {
+        simulationThread.start();
+
+        while (!window.windowShouldClose() && !shouldExit) {
+            timer.getElapsedTime();
+
+            input();
+
+            render();
+
+            if (!window.isvSync()) {
+                sync();
+            }
+        }
+
+        shouldExit = true;
+        try {
+            simulationThread.join();
+        } catch (InterruptedException ignored) {
+        }
+        worldRules.endSimulation();
+    }
+
+    /**
+     * Updates with fixed intervals on the simulation thread, time warp times faster than real time.
+     * In max speed mode the updates follow each other without waiting.
+     */
+    private void simulationLoop() {
+        try {
+            Timer simulationTimer = new Timer();
+            simulationTimer.init();
+
+            float accumulator = 0f;
+            float interval = 1f / Constants.TARGET_UPS;
+
+            while (!shouldExit) {
+                float warp = timeWarp;
+                float elapsedTime = simulationTimer.getElapsedTime();
+
+                if (warp == MAX_SPEED) {
+                    accumulator = 0;
+                    update(interval);
+                    continue;
+                }
+
+                accumulator = Math.min(accumulator + elapsedTime * warp, MAX_BACKLOG * warp);
+
+                while (accumulator >= interval && !shouldExit) {
+                    update(interval);
+                    accumulator -= interval;
+                }
+
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        } catch (Exception excp) {
+            excp.printStackTrace();
+            shouldExit = true;
+        }
+    }
+
     protected void cleanup() {
         worldRules.cleanup();
     }
@@ -0,0 +1,194 @@
+package testbed.engine;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import testbed.world.World;
+import testbed.world.scenario.ReplayWorld;
+import testbed.world.scenario.ScenarioRecorder;
+import utils.Constants;
+import wire.BatchedRemoteAutopilotModule;
+import wire.RemoteAutopilotModule;
+import wire.SharedMemoryTransport;
+import wire.SocketTransport;
+import wire.Transport;
+
+/**
+ * Runs a world without a window, renderer or gui, as fast as possible with a fixed time step.
+ * Every run of the same world gives the same results, which makes it usable for regression runs
+ * and throughput measurements on machines without a display.
+ * <p>
+ * Usage: HeadlessEngine [-record file] [-connect host:port | -shm file [-protocol single|batched|pipelined]]
+ * [-physics serial|parallel] [-substeps n] [world] [simulated seconds] [dt], e.g. HeadlessEngine RandomWorld 600 0.01
+ * <br>
+ * With -physics parallel the drones are stepped on the common ForkJoinPool, with the same results.
+ * With -substeps the physics takes n steps per update while the wheels of a drone touch the ground,
+ * instead of Constants.GROUND_SUB_STEPS.
+ * <br>
+ * A replay uses the integrator, ground sub-steps and orientation mode of the recording, -substeps has to
+ * match it. -physics parallel can be combined with a replay, it gives the same results.
+ * <br>
+ * With -connect or -shm the autopilot module of the world is replaced by the one of an AutopilotModuleServer,
+ * over a socket or over the shared memory file of the server. It is called per drone (single, the default)
+ * or with one frame for all drones (batched or pipelined).
+ * <br>
+ * or HeadlessEngine -replay file, which runs a recording until its end.
+ */
+public class HeadlessEngine {
+
+    private final World world;
+
+    private final float interval;
+
+    private long steps;
+    private double wallTime;
+
+
+    /**
+     * @param world    The world to run, it will be initialised headless
+     * @param interval The fixed time step, before the time slowdown multiplier of the world
+     */
+    public HeadlessEngine(World world, float interval) {
+        this.world = world;
+        this.interval = interval;
+    }
+
+    public HeadlessEngine(World world) {
+        this(world, 1f / Constants.TARGET_UPS);
+    }
+
+
+    /**
+     * Runs the world until the given simulated time has passed, or until all drones are gone.
+     *
+     * @param duration Simulated time in seconds
+     */
+    public void run(float duration) {
+        world.initHeadless();
+
+        long maxSteps = (long) Math.ceil(duration / interval);
+        long start = System.nanoTime();
+
+        try {
+            while (steps < maxSteps && !world.isFinished()) {
+                world.update(interval, null);
+                steps++;
+            }
+        } finally {
+            wallTime = (System.nanoTime() - start) / 1E9;
+
+            world.endSimulation();
+            world.cleanup();
+        }
+    }
+
+
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Wall clock time of the last run in seconds
+     */
+    public double getWallTime() {
+        return wallTime;
+    }
+
+    public float getSimulationTime() {
+        return world.getSimulationTime();
+    }
+
+    public double getSimulationSpeed() {
+        return getSimulationTime() / wallTime;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        // has to be set before any awt class is loaded, the guis and dialogs check this
+        System.setProperty("java.awt.headless", "true");
+
+        String record = null, replay = null, connect = null, shm = null, protocol = "single",
+                physics = "serial";
+        Integer subSteps = null;
+        int first = 0;
+        while (first + 1 < args.length && args[first].startsWith("-")) {
+            if (args[first].equals("-record"))
+                record = args[first + 1];
+            else if (args[first].equals("-replay"))
+                replay = args[first + 1];
+            else if (args[first].equals("-connect"))
+                connect = args[first + 1];
+            else if (args[first].equals("-shm"))
+                shm = args[first + 1];
+            else if (args[first].equals("-protocol"))
+                protocol = args[first + 1];
+            else if (args[first].equals("-physics"))
+                physics = args[first + 1];
+            else if (args[first].equals("-substeps"))
+                subSteps = Integer.parseInt(args[first + 1]);
+            else
+                throw new IllegalArgumentException("Unknown option " + args[first]);
+            first += 2;
+        }
+
+        String worldName = args.length > first ? args[first] : "RandomWorld";
+        float duration = args.length > first + 1 ? Float.parseFloat(args[first + 1]) : 600;
+        float interval = args.length > first + 2 ? Float.parseFloat(args[first + 2]) : 1f / Constants.TARGET_UPS;
+
+        World world;
+        if (replay != null) {
+            world = new ReplayWorld(Paths.get(replay));
+            worldName = "Replay of " + replay;
+            duration = Float.POSITIVE_INFINITY;
+        } else {
+            world = (World) Class.forName("testbed.world.premade." + worldName).getDeclaredConstructor().newInstance();
+        }
+
+        if (physics.equals("parallel"))
+            world.setPhysicsPool(ForkJoinPool.commonPool());
+        else if (!physics.equals("serial"))
+            throw new IllegalArgumentException("Unknown physics " + physics);
+
+        if (subSteps != null) {
+            // a replay runs with the physics of the recording, it would diverge with other settings
+            if (world instanceof ReplayWorld) {
+                int recorded = ((ReplayWorld) world).getReplay().getGroundSubSteps();
+                if (subSteps != recorded)
+                    throw new IllegalArgumentException("-substeps " + subSteps + " contradicts the recording, "
+                            + "which was made with " + recorded + " ground sub-steps");
+            }
+            world.setGroundSubSteps(subSteps);
+        }
+
+        if (record != null)
+            world.setRecorder(new ScenarioRecorder(Paths.get(record)));
+
+        Transport transport = null;
+        if (connect != null) {
+            int colon = connect.lastIndexOf(':');
+            transport = SocketTransport.connect(colon > 0 ? connect.substring(0, colon) : "localhost",
+                    Integer.parseInt(connect.substring(colon + 1)));
+        } else if (shm != null) {
+            transport = SharedMemoryTransport.open(Paths.get(shm));
+        }
+
+        if (transport != null) {
+            if (protocol.equals("single"))
+                world.setAutopilotModule(new RemoteAutopilotModule(transport));
+            else
+                world.setAutopilotModule(new BatchedRemoteAutopilotModule(transport, protocol.equals("pipelined")));
+        }
+
+        HeadlessEngine engine = new HeadlessEngine(world, interval);
+        engine.run(duration);
+
+        System.out.println(worldName + ": " + engine.getSteps() + " steps of " + interval + " s, "
+                + engine.getSimulationTime() + " simulated seconds in " + (float) engine.getWallTime() + " s, "
+                + (float) engine.getSimulationSpeed() + " simulated seconds per second, "
+                + world.getNbDrones() + " drones left");
+    }
+}
@@ -1,8 +1,11 @@
 package testbed.entities.airport;
 
+import java.util.List;
+
 import org.joml.Vector3f;
 
 import testbed.entities.WorldObject;
+import utils.AirportIndex;
 import utils.FloatMath;
 import utils.Utils;
 
@@ -20,7 +23,7 @@ public class Airport {
      */
     private final Vector3f directionPerp;
 
-    private final float width, length;
+    private final float width, length, heading;
 
     private Tarmac tarmac0, tarmac1;
 
@@ -32,6 +35,7 @@ public class Airport {
 
         this.width = width;
         this.length = length;
+        this.heading = heading;
 
         this.direction = new Vector3f(-FloatMath.sin(heading), 0, -FloatMath.cos(heading));
         this.directionPerp = new Vector3f(-FloatMath.cos(heading), 0, FloatMath.sin(heading));
@@ -71,4 +75,22 @@ public class Airport {
     public float getLength() {
         return length;
     }
+
+    public float getHeading() {
+        return heading;
+    }
+
+
+    /**
+     * Indexes the area of the airports the wheels can touch: both runways next to the gates,
+     * as wide as two gates. The ids are the indices in the list.
+     */
+    public static AirportIndex index(List<Airport> airports) {
+        AirportIndex index = new AirportIndex();
+        for (Airport airport : airports)
+            index.add(airport.position.x, airport.position.z, airport.heading,
+                    airport.width + airport.length, airport.width);
+        index.build();
+        return index;
+    }
 }
@@ -5,6 +5,7 @@ import java.nio.DoubleBuffer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
+import org.joml.Vector3f;
 import org.lwjgl.nanovg.NVGColor;
 
 import static org.lwjgl.nanovg.NanoVG.*;
@@ -15,6 +16,7 @@ import org.lwjgl.system.MemoryUtil;
 
 import testbed.Physics;
 import testbed.engine.Window;
+import testbed.world.WorldSnapshot;
 import utils.FloatMath;
 import utils.Utils;
 
@@ -59,6 +61,17 @@ public class Hud {
     }
 
     public void render(Window window, Physics physics, float time) {
+        render(window, physics.getConfig().getDroneID(), physics.getPosition(), physics.getVelocity(),
+                physics.getHeading(), physics.getPitch(), physics.getRoll(), time);
+    }
+
+    public void render(Window window, WorldSnapshot snapshot) {
+        render(window, snapshot.getFollowId(), snapshot.getFollowPosition(), snapshot.getFollowVelocity(),
+                snapshot.getFollowHeading(), snapshot.getFollowPitch(), snapshot.getFollowRoll(), snapshot.getTime());
+    }
+
+    private void render(Window window, String droneId, Vector3f position, Vector3f velocity,
+                        float heading, float pitch, float roll, float time) {
 
         int textAreaWidth = (int) (window.getWidth() * 0.25);
         int textAreaHeight = (int) (window.getHeight() * 0.5);
@@ -83,7 +96,7 @@ public class Hud {
         nvgFontFace(vg, FONT_NAME);
         nvgFontSize(vg, 25.0f);
         nvgTextAlign(vg, NVG_ALIGN_CENTER | NVG_ALIGN_MIDDLE);
-        nvgText(vg, textAreaWidth / 2f, 75, physics.getConfig().getDroneID());
+        nvgText(vg, textAreaWidth / 2f, 75, droneId);
 
         // categories
         nvgFontFace(vg, FONT_NAME);
@@ -99,9 +112,9 @@ public class Hud {
         nvgText(vg, textAreaWidth * 7f / 10, first + size, "z:");
 
         nvgTextAlign(vg, NVG_ALIGN_LEFT | NVG_ALIGN_MIDDLE);
-        nvgText(vg, textAreaWidth * 7f / 10, first - size, " " + FloatMath.round(physics.getPosition().x, 2));
-        nvgText(vg, textAreaWidth * 7f / 10, first, " " + FloatMath.round(physics.getPosition().y, 2));
-        nvgText(vg, textAreaWidth * 7f / 10, first + size, " " + FloatMath.round(physics.getPosition().z, 2));
+        nvgText(vg, textAreaWidth * 7f / 10, first - size, " " + FloatMath.round(position.x, 2));
+        nvgText(vg, textAreaWidth * 7f / 10, first, " " + FloatMath.round(position.y, 2));
+        nvgText(vg, textAreaWidth * 7f / 10, first + size, " " + FloatMath.round(position.z, 2));
 
 
         int second = textAreaHeight * 2 / 4;
@@ -116,10 +129,10 @@ public class Hud {
 
 
         nvgTextAlign(vg, NVG_ALIGN_LEFT | NVG_ALIGN_MIDDLE);
-        nvgText(vg, textAreaWidth * 7f / 10, second - size, " " + FloatMath.round(physics.getVelocity().x, 2));
-        nvgText(vg, textAreaWidth * 7f / 10, second, " " + FloatMath.round(physics.getVelocity().y, 2));
-        nvgText(vg, textAreaWidth * 7f / 10, second + size, " " + FloatMath.round(physics.getVelocity().z, 2));
-        nvgText(vg, textAreaWidth * 7f / 10, second + 2 * size, " " + FloatMath.round(FloatMath.norm(physics.getVelocity()), 2));
+        nvgText(vg, textAreaWidth * 7f / 10, second - size, " " + FloatMath.round(velocity.x, 2));
+        nvgText(vg, textAreaWidth * 7f / 10, second, " " + FloatMath.round(velocity.y, 2));
+        nvgText(vg, textAreaWidth * 7f / 10, second + size, " " + FloatMath.round(velocity.z, 2));
+        nvgText(vg, textAreaWidth * 7f / 10, second + 2 * size, " " + FloatMath.round(FloatMath.norm(velocity), 2));
 
 
         int third = textAreaHeight * 3 / 4;
@@ -131,9 +144,9 @@ public class Hud {
         nvgText(vg, textAreaWidth * 7f / 10, third + size, "roll:");
 
         nvgTextAlign(vg, NVG_ALIGN_LEFT | NVG_ALIGN_MIDDLE);
-        nvgText(vg, textAreaWidth * 7f / 10, third - size, " " + FloatMath.round(FloatMath.toDegrees(physics.getPitch()), 2));
-        nvgText(vg, textAreaWidth * 7f / 10, third, " " + FloatMath.round(FloatMath.toDegrees(physics.getHeading()), 2));
-        nvgText(vg, textAreaWidth * 7f / 10, third + size, " " + FloatMath.round(FloatMath.toDegrees(physics.getRoll()), 2));
+        nvgText(vg, textAreaWidth * 7f / 10, third - size, " " + FloatMath.round(FloatMath.toDegrees(pitch), 2));
+        nvgText(vg, textAreaWidth * 7f / 10, third, " " + FloatMath.round(FloatMath.toDegrees(heading), 2));
+        nvgText(vg, textAreaWidth * 7f / 10, third + size, " " + FloatMath.round(FloatMath.toDegrees(roll), 2));
 
         // Gele balk
         nvgBeginPath(vg);
@@ -3,18 +3,17 @@ package testbed.graphics;
 import static org.lwjgl.opengl.GL11.*;
 
 import org.joml.Matrix4f;
+import org.joml.Vector3f;
 
 import utils.*;
 import testbed.engine.Window;
 import testbed.entities.WorldObject;
 import testbed.entities.airport.Airport;
 import testbed.entities.ground.Ground;
-import testbed.entities.packages.Package;
+import testbed.world.WorldSnapshot;
 import testbed.world.helpers.CameraHelper;
-import testbed.world.helpers.DroneHelper;
 
 import java.util.List;
-import java.util.Set;
 
 public class Renderer {
 
@@ -90,26 +89,25 @@ public class Renderer {
         glDisable(GL_SCISSOR_TEST);
     }
 
-    public void render(Window window, CameraHelper cameraHelper, DroneHelper droneHelper,
-                       Set<Package> packages, Ground ground, List<Airport> airports) {
+    public void render(Window window, CameraHelper cameraHelper, WorldSnapshot snapshot, Ground ground, List<Airport> airports) {
         clear(window);
 
-        drawChaseCam(window, cameraHelper, droneHelper, packages, ground, airports);
+        drawChaseCam(window, cameraHelper, snapshot, ground, airports);
 
         if (!ortho) {
-            drawFreeCam(window, cameraHelper, droneHelper, packages, ground, airports);
+            drawFreeCam(window, cameraHelper, snapshot, ground, airports);
         } else {
             int size = 160;
 
-            drawTopOrthoCam(window, cameraHelper, droneHelper, packages, size, ground, airports);
+            drawTopOrthoCam(window, cameraHelper, snapshot, size, ground, airports);
 
-            drawRightOrthCam(window, cameraHelper, droneHelper, packages, size, ground, airports);
+            drawRightOrthCam(window, cameraHelper, snapshot, size, ground, airports);
         }
     }
 
 
     private void drawChaseCam(Window window, CameraHelper cameraHelper,
-                              DroneHelper droneHelper, Set<Package> packages, Ground ground, List<Airport> airports) {
+                              WorldSnapshot snapshot, Ground ground, List<Airport> airports) {
         Matrix4f projectionMatrix;
         Matrix4f viewMatrix;
         shaderProgram.bind();
@@ -128,14 +126,14 @@ public class Renderer {
 
         renderAirports(airports, viewMatrix);
         renderGround(ground, viewMatrix, false);
-        renderPackages(packages, viewMatrix);
-        renderDroneItems(droneHelper, viewMatrix);
+        renderObjects(snapshot.getPackages(), viewMatrix);
+        renderObjects(snapshot.getDrones(), viewMatrix);
         shaderProgram.unbind();
     }
 
 
     private void drawFreeCam(Window window, CameraHelper cameraHelper,
-                             DroneHelper droneHelper, Set<Package> packages, Ground ground, List<Airport> airports) {
+                             WorldSnapshot snapshot, Ground ground, List<Airport> airports) {
         Matrix4f projectionMatrix;
         Matrix4f viewMatrix;
         shaderProgram.bind();
@@ -155,14 +153,14 @@ public class Renderer {
 
         renderAirports(airports, viewMatrix);
         renderGround(ground, viewMatrix, false);
-        renderTrail(droneHelper, viewMatrix);
-        renderPackages(packages, viewMatrix);
-        renderDroneItems(droneHelper, viewMatrix);
+        renderObjects(snapshot.getTrails(), viewMatrix);
+        renderObjects(snapshot.getPackages(), viewMatrix);
+        renderObjects(snapshot.getDrones(), viewMatrix);
         shaderProgram.unbind();
     }
 
     private void drawTopOrthoCam(Window window, CameraHelper cameraHelper,
-                                 DroneHelper droneHelper, Set<Package> packages, int size, Ground ground, List<Airport> airports) {
+                                 WorldSnapshot snapshot, int size, Ground ground, List<Airport> airports) {
         Matrix4f viewMatrix;
         shaderProgram.bind();
         topOrthoCamX = chaseCamWidth;
@@ -181,14 +179,14 @@ public class Renderer {
 
         renderAirports(airports, viewMatrix);
         renderGround(ground, viewMatrix, false);
-        renderTrail(droneHelper, viewMatrix);
-        renderPackages(packages, viewMatrix);
-        renderDroneItems(droneHelper, viewMatrix);
+        renderObjects(snapshot.getTrails(), viewMatrix);
+        renderObjects(snapshot.getPackages(), viewMatrix);
+        renderObjects(snapshot.getDrones(), viewMatrix);
         shaderProgram.unbind();
     }
 
     private void drawRightOrthCam(Window window, CameraHelper cameraHelper,
-                                  DroneHelper droneHelper, Set<Package> packages, int size, Ground ground, List<Airport> airports) {
+                                  WorldSnapshot snapshot, int size, Ground ground, List<Airport> airports) {
         Matrix4f viewMatrix;
         shaderProgram.bind();
 
@@ -207,23 +205,21 @@ public class Renderer {
 
         renderAirports(airports, viewMatrix);
         renderGround(ground, viewMatrix, true);
-        renderTrail(droneHelper, viewMatrix);
-        renderPackages(packages, viewMatrix);
-        renderDroneItems(droneHelper, viewMatrix);
+        renderObjects(snapshot.getTrails(), viewMatrix);
+        renderObjects(snapshot.getPackages(), viewMatrix);
+        renderObjects(snapshot.getDrones(), viewMatrix);
         shaderProgram.unbind();
     }
 
 
-    private void renderTrail(DroneHelper droneHelper, Matrix4f viewMatrix) {
-        for (int i : droneHelper.droneIds.values()) {
-            List<WorldObject> trailItems = droneHelper.getDroneTrail(i).getPathObjects();
-            if (trailItems.isEmpty()) return;
-            for (WorldObject gameItem : trailItems) {
-                Matrix4f modelViewMatrix = Transformation.getModelViewMatrix(gameItem, viewMatrix);
-                shaderProgram.setUniform("modelViewMatrix", modelViewMatrix);
-                // Render the mesh for this game item
-                gameItem.getMesh().render();
-            }
+    private void renderObjects(WorldSnapshot.Objects objects, Matrix4f viewMatrix) {
+        Vector3f position = new Vector3f(), rotation = new Vector3f();
+        for (int i = 0; i < objects.size(); i++) {
+            Matrix4f modelViewMatrix = Transformation.getModelViewMatrix(objects.getPosition(i, position),
+                    objects.getRotation(i, rotation), objects.getScale(i), viewMatrix);
+            shaderProgram.setUniform("modelViewMatrix", modelViewMatrix);
+            // Render the mesh for this game item
+            objects.getMesh(i).render();
         }
     }
 
@@ -256,30 +252,6 @@ public class Renderer {
         }
     }
 
-    private void renderPackages(Set<Package> packages, Matrix4f viewMatrix) {
-        for (Package pack : packages) {
-            if (pack == null) continue;
-            Matrix4f modelViewMatrix = Transformation.getModelViewMatrix(pack.getCube(), viewMatrix);
-            shaderProgram.setUniform("modelViewMatrix", modelViewMatrix);
-            // Render the mesh for this game item
-            pack.getCube().getMesh().render();
-        }
-    }
-
-    private void renderDroneItems(DroneHelper droneHelper, Matrix4f viewMatrix) {
-        for (int i : droneHelper.droneIds.values()) {
-            for (WorldObject droneItem : droneHelper.getDroneItems(i)) {
-                droneItem.setScale(1);
-                // Set model view matrix for this item
-                Matrix4f modelViewMatrix = Transformation.getModelViewMatrix(droneItem, viewMatrix);
-                shaderProgram.setUniform("modelViewMatrix", modelViewMatrix);
-                // Render the mesh for this game item
-                droneItem.getMesh().render();
-                droneItem.setScale(1);
-            }
-        }
-    }
-
     /**
      * Remove the shader program
      */
@@ -56,8 +56,11 @@ public class Transformation {
      * @return The modelViewMatrix
      */
     public static Matrix4f getModelViewMatrix(WorldObject gameItem, Matrix4f viewMatrix) {
-        Vector3f rotation = gameItem.getRotation();
-        Matrix4f modelViewMatrix = new Matrix4f().identity().translate(gameItem.getPosition());
+        return getModelViewMatrix(gameItem.getPosition(), gameItem.getRotation(), gameItem.getScale(), viewMatrix);
+    }
+
+    public static Matrix4f getModelViewMatrix(Vector3f position, Vector3f rotation, float scale, Matrix4f viewMatrix) {
+        Matrix4f modelViewMatrix = new Matrix4f().identity().translate(position);
 
         if (Math.abs(rotation.y) > 1E-6)
             modelViewMatrix.rotate(-rotation.y, new Vector3f(0, 1, 0));
@@ -67,7 +70,7 @@ public class Transformation {
             modelViewMatrix.rotate(-rotation.z, new Vector3f(0, 0, 1));
 
 
-        modelViewMatrix.scale(gameItem.getScale());
+        modelViewMatrix.scale(scale);
         Matrix4f viewCurr = new Matrix4f(viewMatrix);
         return viewCurr.mul(modelViewMatrix);
     }
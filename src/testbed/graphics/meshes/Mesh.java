@@ -3,7 +3,10 @@ package testbed.graphics.meshes;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.lwjgl.opengl.GL11.*;
 import static org.lwjgl.opengl.GL15.*;
@@ -14,12 +17,32 @@ import org.lwjgl.system.MemoryUtil;
 
 public class Mesh {
 
-    private final int vaoId;
+    /**
+     * Without an OpenGL context (headless simulation) meshes are not loaded into the graphics card.
+     */
+    private static boolean headless = false;
+
+    /**
+     * The thread that owns the OpenGL context, null if meshes are only used on one thread.
+     * Meshes created on another thread are loaded on their first render, meshes cleaned up
+     * on another thread are released when the OpenGL thread calls releaseRetired.
+     */
+    private static volatile Thread glThread;
+
+    private static final Queue<Mesh> retired = new ConcurrentLinkedQueue<>();
+
+    private int vaoId;
 
     private final List<Integer> vboIdList;
 
     private final int vertexCount;
 
+    /**
+     * Kept until the mesh is loaded into the graphics card
+     */
+    private float[] positions, colours;
+    private int[] indices;
+
     /**
      * Creates the VBO and VAO objects loaded into the graphics card. Pretty much the base model
      * that can be passed to a gameObject that describes its shape.
@@ -29,13 +52,30 @@ public class Mesh {
      *                  vertices with just one index. Also wrapped into a index VBO
      */
     public Mesh(float[] positions, float[] colours, int[] indices) {
+        vertexCount = indices.length;
+        vboIdList = new ArrayList<>();
+
+        if (headless)
+            return;
+
+        this.positions = positions;
+        this.colours = colours;
+        this.indices = indices;
+
+        if (isGlThread())
+            load();
+    }
+
+    private static boolean isGlThread() {
+        Thread owner = glThread;
+        return owner == null || owner == Thread.currentThread();
+    }
+
+    private void load() {
         FloatBuffer posBuffer = null;
         FloatBuffer colourBuffer = null;
         IntBuffer indicesBuffer = null;
         try {
-            vertexCount = indices.length;
-            vboIdList = new ArrayList<>();
-
             vaoId = glGenVertexArrays();
             glBindVertexArray(vaoId);
 
@@ -67,6 +107,10 @@ public class Mesh {
 
             glBindBuffer(GL_ARRAY_BUFFER, 0);
             glBindVertexArray(0);
+
+            positions = null;
+            colours = null;
+            indices = null;
         } finally {
             if (posBuffer != null) {
                 MemoryUtil.memFree(posBuffer);
@@ -80,6 +124,28 @@ public class Mesh {
         }
     }
 
+    public static void setHeadless(boolean headless) {
+        Mesh.headless = headless;
+    }
+
+    public static boolean isHeadless() {
+        return headless;
+    }
+
+    public static void setGlThread(Thread glThread) {
+        Mesh.glThread = glThread;
+    }
+
+    /**
+     * Moves the meshes that were cleaned up on another thread than the OpenGL thread to dest.
+     * They can be released with cleanUp on the OpenGL thread once they are no longer rendered.
+     */
+    public static void drainRetired(Collection<Mesh> dest) {
+        Mesh mesh;
+        while ((mesh = retired.poll()) != null)
+            dest.add(mesh);
+    }
+
     public int getVaoId() {
         return vaoId;
     }
@@ -89,6 +155,15 @@ public class Mesh {
     }
 
     public void render() {
+        if (headless)
+            return;
+
+        if (vaoId == 0) {
+            if (positions == null)
+                return;
+            load();
+        }
+
         // Draw the mesh
         glBindVertexArray(getVaoId());
         glEnableVertexAttribArray(0);
@@ -103,6 +178,18 @@ public class Mesh {
     }
 
     public void cleanUp() {
+        if (!isGlThread()) {
+            retired.add(this);
+            return;
+        }
+
+        positions = null;
+        colours = null;
+        indices = null;
+
+        if (vaoId == 0)
+            return;
+
         glDisableVertexAttribArray(0);
 
         // Delete the VBOs
@@ -110,9 +197,11 @@ public class Mesh {
         for (int vboId : vboIdList) {
             glDeleteBuffers(vboId);
         }
+        vboIdList.clear();
 
         // Delete the VAO
         glBindVertexArray(0);
         glDeleteVertexArrays(getVaoId());
+        vaoId = 0;
     }
 }
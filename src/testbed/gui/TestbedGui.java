@@ -13,7 +13,9 @@ import java.util.stream.Collectors;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
@@ -29,7 +31,9 @@ import javax.swing.table.DefaultTableCellRenderer;
 import org.joml.Vector3f;
 
 import interfaces.AutopilotConfig;
+import testbed.GroundSubStepping;
 import testbed.Physics;
+import testbed.engine.Engine;
 import testbed.entities.airport.Airport;
 import testbed.entities.packages.Package;
 import testbed.world.World;
@@ -77,6 +81,7 @@ public class TestbedGui extends JFrame {
         drones.getColumnModel().getColumn(0).setCellRenderer(renderer);
         drones.getColumnModel().getColumn(3).setMaxWidth(100);
         drones.getColumnModel().getColumn(3).setCellRenderer(renderer);
+        drones.getColumnModel().getColumn(4).setCellRenderer(renderer);
         drones.getTableHeader().setFont(drones.getTableHeader().getFont().deriveFont(Font.BOLD));
         drones.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
             private int lastId;
@@ -132,6 +137,9 @@ public class TestbedGui extends JFrame {
         AddPackage addBtn = new AddPackage(airports.size());
         contentPane.add(addBtn.panel);
 
+        TimeWarp timeWarp = new TimeWarp(world);
+        contentPane.add(timeWarp.panel);
+
         minimap = new MiniMap(3000, 3000, helper, airports);
         minimap.setPreferredSize(new Dimension(Constants.TESTBED_GUI_WIDTH, Constants.TESTBED_GUI_HEIGHT / 3));
         contentPane.add(minimap);
@@ -176,11 +184,11 @@ public class TestbedGui extends JFrame {
 
 
         public String getColumnName(int col) {
-            return new String[]{"ID", "DroneId", "Location", "Package"}[col];
+            return new String[]{"ID", "DroneId", "Location", "Package", "Steps (ground/air)"}[col];
         }
 
         public int getColumnCount() {
-            return 4;
+            return 5;
         }
 
         public int getRowCount() {
@@ -203,6 +211,12 @@ public class TestbedGui extends JFrame {
                 case 3:
                     Package pack = helper.getDronePackage(row);
                     return pack == null ? "" : "" + packageTable.packages.indexOf(pack);
+                case 4:
+                    Physics drone = helper.getDronePhysics(row);
+                    if (drone == null || !(drone.getIntegrator() instanceof GroundSubStepping))
+                        return "";
+                    GroundSubStepping stepping = (GroundSubStepping) drone.getIntegrator();
+                    return stepping.getGroundSteps() + " / " + stepping.getAirSteps();
                 default:
                     return null;
             }
@@ -291,6 +305,29 @@ public class TestbedGui extends JFrame {
     }
 
 
+    private static class TimeWarp {
+
+        private static final float[] WARPS = {1, 10, 100, Engine.MAX_SPEED};
+        private static final String[] NAMES = {"1x", "10x", "100x", "Unlimited"};
+
+        private JPanel panel;
+
+        public TimeWarp(World world) {
+            panel = new JPanel();
+            panel.setLayout(new BoxLayout(panel, BoxLayout.LINE_AXIS));
+
+            panel.add(new JLabel("Time warp "));
+
+            JComboBox<String> box = new JComboBox<>(NAMES);
+            for (int i = 0; i < WARPS.length; i++)
+                if (WARPS[i] == world.getTimeWarp())
+                    box.setSelectedIndex(i);
+            box.addActionListener(e -> world.setTimeWarp(WARPS[box.getSelectedIndex()]));
+            panel.add(box);
+        }
+    }
+
+
     private static class MiniMap extends Component {
 
         private static final long serialVersionUID = 1L;
@@ -338,7 +375,7 @@ public class TestbedGui extends JFrame {
                 g2.drawString("A" + i, x - 7, y - 6);
                 i++;
             }
-            for (int drone : helper.droneIds.values()) {
+            for (int drone = helper.firstDrone(); drone >= 0; drone = helper.nextDrone(drone)) {
                 if (drone == activeDrone)
                     g2.setColor(Color.GREEN);
                 else
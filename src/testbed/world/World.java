@@ -4,15 +4,22 @@ import interfaces.AutopilotConfig;
 import interfaces.AutopilotModule;
 import testbed.engine.*;
 import testbed.entities.airport.Airport;
+import testbed.Integrators;
+import testbed.Physics;
+import testbed.entities.WorldObject;
 import testbed.entities.ground.Ground;
 import testbed.entities.packages.PackageGenerator;
 import testbed.entities.packages.Package;
 import testbed.graphics.Hud;
 import testbed.graphics.Renderer;
+import testbed.graphics.meshes.Mesh;
 import testbed.gui.TestbedGui;
 import testbed.world.helpers.*;
+import testbed.world.scenario.ScenarioRecorder;
+import utils.AirportIndex;
 import utils.Constants;
 import utils.FloatMath;
+import utils.TripleBuffer;
 import utils.Utils;
 import utils.IO.KeyboardInput;
 import utils.IO.MouseInput;
@@ -21,11 +28,18 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.joml.Vector3f;
 
 public abstract class World implements IWorldRules {
 
+    /**
+     * Without a simulation thread the free camera moves one step per update, with one it moves once
+     * per frame, as far as it would move at the default speed.
+     */
+    private static final float CAMERA_STEPS_PER_FRAME = Constants.SPEED * Constants.TARGET_UPS / Constants.TARGET_FPS;
+
     private final int TIME_SLOWDOWN_MULTIPLIER;
     private final float airportWidth, airportLength;
 
@@ -40,8 +54,33 @@ public abstract class World implements IWorldRules {
     private int logDrone;
     private float time;
     private List<Airport> airports;
+    private AirportIndex airportIndex;
     private Set<Package> packages;
 
+    /**
+     * With a simulation thread, every update publishes a snapshot and the render thread draws the latest one.
+     * Without one, the back buffer is refilled right before rendering.
+     */
+    private boolean simulationThread;
+    private TripleBuffer<WorldSnapshot> snapshots;
+    private long tick;
+
+    /**
+     * Camera changes asked by the render thread or the gui, applied on the simulation thread
+     */
+    private volatile boolean nextFollowRequested;
+    private volatile int followRequest = -1;
+
+    /**
+     * Writes the setup and every update to a file when set, see ReplayWorld
+     */
+    private ScenarioRecorder recorder;
+
+    /**
+     * Replaces the module of setupAutopilotModule when set, e.g. by a remote module
+     */
+    private AutopilotModule moduleOverride;
+
     /* These are to be directly called in the world classes */
     protected AutopilotModule autopilotModule;
     protected Ground ground;
@@ -92,19 +131,67 @@ public abstract class World implements IWorldRules {
     @Override
     public void init(Window window, Engine engine) {
         this.gameEngine = engine;
+
+        setup(false);
+
+        try {
+            this.renderer = new Renderer();
+            this.renderer.init();
+            this.hud = new Hud();
+            this.hud.init();
+        } catch (Exception e) {
+            System.out.println("Abstract class World (render.init(window)) gave this error: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        testbedGui.showGUI();
+
+        this.updateHelper = new UpdateHelper(droneHelper, TIME_SLOWDOWN_MULTIPLIER, cameraHelper, airports,
+                autopilotModule, testbedGui, packages, generator);
+        this.updateHelper.setRecorder(recorder);
+
+        this.simulationThread = engine.hasSimulationThread();
+        this.snapshots = new TripleBuffer<>(WorldSnapshot::new);
+        this.updateHelper.setUpdateCameras(!simulationThread);
+    }
+
+    /**
+     * Initialises the world without a window, renderer, hud or testbed gui.
+     * The world can then be advanced with update(interval, null).
+     */
+    public void initHeadless() {
+        Mesh.setHeadless(true);
+
+        setup(true);
+
+        this.updateHelper = new UpdateHelper(droneHelper, TIME_SLOWDOWN_MULTIPLIER, cameraHelper, airports,
+                autopilotModule, null, packages, generator);
+        this.updateHelper.setRecorder(recorder);
+    }
+
+    private void setup(boolean headless) {
         this.time = 0;
 
         this.airports = new ArrayList<>();
         this.packages = new HashSet<>();
 
         setupAutopilotModule();
+        if (moduleOverride != null)
+            this.autopilotModule = moduleOverride;
 
         if (autopilotModule != null)
             autopilotModule.defineAirportParams(this.airportLength, this.airportWidth);
 
         setupAirports();
+        this.airportIndex = Airport.index(airports);
 
-        this.testbedGui = new TestbedGui(this, droneHelper, airports);
+        if (recorder != null)
+            recorder.writeWorld(TIME_SLOWDOWN_MULTIPLIER, droneHelper.hasPhysics(), droneHelper.getMaxNbDrones(),
+                    airportWidth, airportLength, droneHelper.getIntegrator(), droneHelper.getGroundSubSteps(),
+                    droneHelper.usesQuaternions(), airports);
+
+        if (!headless)
+            this.testbedGui = new TestbedGui(this, droneHelper, airports);
 
         if (autopilotModule != null)
             for (Airport port : airports) {
@@ -114,29 +201,79 @@ public abstract class World implements IWorldRules {
 
         setupDrones();
         setupWorld();
+    }
 
-        try {
-            this.renderer = new Renderer();
-            this.renderer.init();
-            this.hud = new Hud();
-            this.hud.init();
-        } catch (Exception e) {
-            System.out.println("Abstract class World (render.init(window)) gave this error: " + e.getMessage());
-            e.printStackTrace();
-        }
+    public void nextFollowDrone() {
+        if (simulationThread)
+            nextFollowRequested = true;
+        else
+            updateHelper.nextFollowDrone();
+    }
 
-        testbedGui.showGUI();
+    public void setFollowDrone(int droneId) {
+        if (simulationThread)
+            followRequest = droneId;
+        else
+            updateHelper.setFollowDrone(droneId);
+    }
 
-        this.updateHelper = new UpdateHelper(droneHelper, TIME_SLOWDOWN_MULTIPLIER, cameraHelper, airports,
-                autopilotModule, testbedGui, packages, generator);
+    /**
+     * Simulated seconds per real second, Engine.MAX_SPEED to update as fast as possible.
+     */
+    public void setTimeWarp(float timeWarp) {
+        if (gameEngine != null)
+            gameEngine.setTimeWarp(timeWarp);
     }
 
-    public void nextFollowDrone() {
-        updateHelper.nextFollowDrone();
+    public float getTimeWarp() {
+        return gameEngine != null ? gameEngine.getTimeWarp() : Constants.SPEED;
     }
 
-    public void setFollowDrone(int droneId) {
-        updateHelper.setFollowDrone(droneId);
+    /**
+     * Records this world to the given file, has to be called before the world is initialised.
+     */
+    public void setRecorder(ScenarioRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Uses the given module instead of the one of the world, has to be called before the world is initialised.
+     */
+    public void setAutopilotModule(AutopilotModule module) {
+        this.moduleOverride = module;
+    }
+
+    /**
+     * Steps the physics of the drones in parallel on the given pool, or one after another if it is null.
+     * Both give the same results.
+     */
+    public void setPhysicsPool(ForkJoinPool physicsPool) {
+        droneHelper.setPhysicsPool(physicsPool);
+    }
+
+    /**
+     * Sets the integrator for all drones.
+     */
+    public void setIntegrator(Integrators.Kind integrator) {
+        droneHelper.setIntegrator(integrator);
+    }
+
+    /**
+     * Sets the number of physics steps per update while the wheels of a drone touch the ground.
+     */
+    public void setGroundSubSteps(int groundSubSteps) {
+        droneHelper.setGroundSubSteps(groundSubSteps);
+    }
+
+    /**
+     * Keeps the orientation of all drones as a quaternion instead of a matrix.
+     */
+    public void setQuaternions(boolean quaternions) {
+        droneHelper.setQuaternions(quaternions);
+    }
+
+    protected UpdateHelper getUpdateHelper() {
+        return updateHelper;
     }
 
     public void setFreeCamPos(Vector3f position) {
@@ -157,7 +294,9 @@ public abstract class World implements IWorldRules {
         float heading = FloatMath.atan2(-port.getDirection().x, -port.getDirection().z);
         heading += (facing == 0 ? 0 : FloatMath.PI * (heading > 0 ? -1 : 1));
 
-        droneHelper.addDrone(config, pos, new Vector3f(), heading, airports);
+        if (recorder != null)
+            recorder.writeDrone(config, pos, new Vector3f(), heading);
+        droneHelper.addDrone(config, pos, new Vector3f(), heading, airports, airportIndex);
 
         if (autopilotModule != null)
             autopilotModule.defineDrone(airportId, gate, facing, config);
@@ -165,7 +304,9 @@ public abstract class World implements IWorldRules {
 
     @Deprecated
     public void addDrone(AutopilotConfig config, Vector3f startPos, Vector3f startVel, float startHeading) {
-        droneHelper.addDrone(config, startPos, startVel, startHeading, airports);
+        if (recorder != null)
+            recorder.writeDrone(config, startPos, startVel, startHeading);
+        droneHelper.addDrone(config, startPos, startVel, startHeading, airports, airportIndex);
     }
 
 
@@ -183,6 +324,9 @@ public abstract class World implements IWorldRules {
     @Override
     public void input(Window window, MouseInput mouseInput) {
         keyboardInput.worldInput(cameraHelper.getCameraInc(), window, renderer, this);
+
+        if (simulationThread)
+            cameraHelper.moveFreeCamera(mouseInput, CAMERA_STEPS_PER_FRAME);
     }
 
 
@@ -193,10 +337,27 @@ public abstract class World implements IWorldRules {
     public void update(float interval, MouseInput mouseInput) {
         this.time += interval;
 
+        if (nextFollowRequested) {
+            nextFollowRequested = false;
+            updateHelper.nextFollowDrone();
+        }
+        int request = followRequest;
+        if (request >= 0) {
+            followRequest = -1;
+            updateHelper.setFollowDrone(request);
+        }
+
         updateHelper.updateCycle(interval, mouseInput);
 
-        if (droneHelper.droneIds.isEmpty()) {
-            gameEngine.setLoopShouldExit();
+        this.tick++;
+        if (simulationThread) {
+            capture(snapshots.getBack());
+            snapshots.publish();
+        }
+
+        if (isFinished()) {
+            if (gameEngine != null)
+                gameEngine.setLoopShouldExit();
             return;
         }
 
@@ -205,10 +366,98 @@ public abstract class World implements IWorldRules {
     }
 
 
+    public boolean hasDrones() {
+        return droneHelper.hasDrones();
+    }
+
+    /**
+     * The world stops when all drones have crashed.
+     */
+    public boolean isFinished() {
+        return !hasDrones();
+    }
+
+    public int getNbDrones() {
+        return droneHelper.getNbDrones();
+    }
+
+    public int getNbCrashedDrones() {
+        return droneHelper.getNbCrashedDrones();
+    }
+
+    /**
+     * Packages that were accepted by the testbed
+     */
+    public int getNbRequestedPackages() {
+        return updateHelper.getNbRequestedPackages();
+    }
+
+    public int getNbDeliveredPackages() {
+        return updateHelper.getNbDeliveredPackages();
+    }
+
+    /**
+     * Packages on board of drones that crashed
+     */
+    public int getNbLostPackages() {
+        return droneHelper.getNbLostPackages();
+    }
+
+    /**
+     * Simulated time in seconds, taking the time slowdown multiplier into account.
+     */
+    public float getSimulationTime() {
+        return time / TIME_SLOWDOWN_MULTIPLIER;
+    }
+
+
+    /**
+     * Copies the state that is rendered into the snapshot.
+     */
+    private void capture(WorldSnapshot snapshot) {
+        snapshot.clear(tick, time);
+
+        for (int droneId = droneHelper.firstDrone(); droneId >= 0; droneId = droneHelper.nextDrone(droneId)) {
+            for (WorldObject droneItem : droneHelper.getDroneItems(droneId))
+                snapshot.getDrones().add(droneItem);
+            for (WorldObject trailItem : droneHelper.getDroneTrail(droneId).getPathObjects())
+                snapshot.getTrails().add(trailItem);
+        }
+
+        for (Package pack : packages) {
+            if (pack != null)
+                snapshot.getPackages().add(pack.getCube());
+        }
+
+        Physics physics = droneHelper.getDronePhysics(updateHelper.getFollowDrone());
+        if (physics != null)
+            snapshot.setFollowDrone(physics.getConfig().getDroneID(), physics.getPosition(), physics.getVelocity(),
+                    physics.getHeading(), physics.getPitch(), physics.getRoll());
+
+        Mesh.drainRetired(snapshot.getRetired());
+    }
+
     @Override
     public void render(Window window) {
-        renderer.render(window, cameraHelper, droneHelper, packages, ground, airports);
-        hud.render(window, droneHelper.getDronePhysics(updateHelper.getFollowDrone()), this.time);
+        WorldSnapshot snapshot;
+        if (simulationThread) {
+            snapshot = snapshots.getFront();
+            if (snapshot.hasFollowDrone())
+                cameraHelper.followDrone(snapshot.getFollowPosition(), snapshot.getFollowHeading(),
+                        snapshot.getFollowPitch(), snapshot.getFollowRoll());
+        } else {
+            snapshot = snapshots.getBack();
+            capture(snapshot);
+        }
+
+        renderer.render(window, cameraHelper, snapshot, ground, airports);
+        if (snapshot.hasFollowDrone())
+            hud.render(window, snapshot);
+
+        // meshes removed up to this snapshot are never rendered again
+        for (Mesh mesh : snapshot.getRetired())
+            mesh.cleanUp();
+        snapshot.getRetired().clear();
     }
 
 
@@ -217,21 +466,31 @@ public abstract class World implements IWorldRules {
      */
     @Override
     public void cleanup() {
-        renderer.cleanup();
+        if (renderer != null)
+            renderer.cleanup();
         for (Package pack : packages) {
             pack.cleanup();
         }
+
+        List<Mesh> retired = new ArrayList<>();
+        Mesh.drainRetired(retired);
+        for (Mesh mesh : retired)
+            mesh.cleanUp();
     }
 
 
     @Override
     public void endSimulation() {
-        testbedGui.dispose();
+        if (testbedGui != null)
+            testbedGui.dispose();
 
         if (autopilotModule != null)
             autopilotModule.simulationEnded();
 
         if (logHelper != null)
             logHelper.close();
+
+        if (recorder != null)
+            recorder.close();
     }
 }
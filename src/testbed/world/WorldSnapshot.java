@@ -0,0 +1,171 @@
+package testbed.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joml.Vector3f;
+
+import testbed.entities.WorldObject;
+import testbed.graphics.meshes.Mesh;
+
+/**
+ * Everything the renderer and the hud need from one tick of the simulation: the poses of the drone items,
+ * trails and packages, and the state of the followed drone.
+ * <p>
+ * Snapshots are recycled through a TripleBuffer, the thread that holds one is the only one using it,
+ * so it never changes while it is rendered.
+ */
+public class WorldSnapshot {
+
+    private long tick;
+    private float time;
+
+    private final Objects drones = new Objects();
+    private final Objects trails = new Objects();
+    private final Objects packages = new Objects();
+
+    private String followId;
+    private final Vector3f followPosition = new Vector3f();
+    private final Vector3f followVelocity = new Vector3f();
+    private float followHeading, followPitch, followRoll;
+
+    /**
+     * Meshes removed from the world up to this tick that have not been released yet
+     */
+    private final List<Mesh> retired = new ArrayList<>();
+
+
+    void clear(long tick, float time) {
+        this.tick = tick;
+        this.time = time;
+        drones.clear();
+        trails.clear();
+        packages.clear();
+        followId = null;
+    }
+
+    void setFollowDrone(String droneId, Vector3f position, Vector3f velocity, float heading, float pitch, float roll) {
+        this.followId = droneId;
+        this.followPosition.set(position);
+        this.followVelocity.set(velocity);
+        this.followHeading = heading;
+        this.followPitch = pitch;
+        this.followRoll = roll;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    public Objects getDrones() {
+        return drones;
+    }
+
+    public Objects getTrails() {
+        return trails;
+    }
+
+    public Objects getPackages() {
+        return packages;
+    }
+
+    public boolean hasFollowDrone() {
+        return followId != null;
+    }
+
+    public String getFollowId() {
+        return followId;
+    }
+
+    public Vector3f getFollowPosition() {
+        return followPosition;
+    }
+
+    public Vector3f getFollowVelocity() {
+        return followVelocity;
+    }
+
+    public float getFollowHeading() {
+        return followHeading;
+    }
+
+    public float getFollowPitch() {
+        return followPitch;
+    }
+
+    public float getFollowRoll() {
+        return followRoll;
+    }
+
+    /**
+     * Meshes that are no longer in the world, to be cleaned up on the OpenGL thread after rendering.
+     * The list is kept until it is cleared, so meshes of snapshots that were never rendered are not lost.
+     */
+    public List<Mesh> getRetired() {
+        return retired;
+    }
+
+
+    /**
+     * Meshes with their position, rotation and scale, stored in flat arrays so the snapshot can be refilled
+     * every tick without allocating.
+     */
+    public static class Objects {
+
+        private static final int POSE_SIZE = 7;
+
+        private Mesh[] meshes = new Mesh[16];
+        private float[] poses = new float[16 * POSE_SIZE];
+        private int size;
+
+        void clear() {
+            Arrays.fill(meshes, 0, size, null);
+            size = 0;
+        }
+
+        void add(WorldObject object) {
+            if (size == meshes.length) {
+                meshes = Arrays.copyOf(meshes, 2 * size);
+                poses = Arrays.copyOf(poses, 2 * size * POSE_SIZE);
+            }
+
+            Vector3f position = object.getPosition(), rotation = object.getRotation();
+            int offset = size * POSE_SIZE;
+            poses[offset] = position.x;
+            poses[offset + 1] = position.y;
+            poses[offset + 2] = position.z;
+            poses[offset + 3] = rotation.x;
+            poses[offset + 4] = rotation.y;
+            poses[offset + 5] = rotation.z;
+            poses[offset + 6] = object.getScale();
+            meshes[size++] = object.getMesh();
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Mesh getMesh(int i) {
+            return meshes[i];
+        }
+
+        public Vector3f getPosition(int i, Vector3f dest) {
+            int offset = i * POSE_SIZE;
+            return dest.set(poses[offset], poses[offset + 1], poses[offset + 2]);
+        }
+
+        public Vector3f getRotation(int i, Vector3f dest) {
+            int offset = i * POSE_SIZE + 3;
+            return dest.set(poses[offset], poses[offset + 1], poses[offset + 2]);
+        }
+
+        public float getScale(int i) {
+            return poses[i * POSE_SIZE + 6];
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package testbed.world.helpers;
 
+import org.joml.Vector2f;
 import org.joml.Vector3f;
 
 import testbed.graphics.Camera;
 import utils.Constants;
 import utils.FloatMath;
+import utils.IO.MouseInput;
 
 public class CameraHelper {
 
@@ -29,6 +31,39 @@ public class CameraHelper {
         rightOrthoCamera.setRotation(0, FloatMath.toRadians(-90), 0);
     }
 
+    /**
+     * Moves the free camera with the keyboard and the mouse.
+     *
+     * @param steps How many camera steps the free camera moves
+     */
+    public void moveFreeCamera(MouseInput mouseInput, float steps) {
+        freeCamera.movePosition(cameraInc.x * Constants.CAMERA_POS_STEP * steps,
+                cameraInc.y * Constants.CAMERA_POS_STEP * steps,
+                cameraInc.z * Constants.CAMERA_POS_STEP * steps
+        );
+        if (mouseInput.isRightButtonPressed()) {
+            Vector2f rotVec = mouseInput.getDisplVec();
+            freeCamera.moveRotation(FloatMath.toRadians(rotVec.x * Constants.MOUSE_SENSITIVITY),
+                    FloatMath.toRadians(rotVec.y * Constants.MOUSE_SENSITIVITY), 0);
+        }
+    }
+
+    /**
+     * Puts the drone, chase and ortho cameras at the followed drone.
+     */
+    public void followDrone(Vector3f dronePos, float heading, float pitch, float roll) {
+        droneCamera.setPosition(dronePos.x, dronePos.y, dronePos.z);
+        droneCamera.setRotation(-pitch, -heading, -roll);
+
+        float offset = 17.5f;
+        chaseCamera.setPosition(dronePos.x + offset * (float) Math.sin(heading),
+                dronePos.y, dronePos.z + offset * (float) Math.cos(heading));
+        chaseCamera.setRotation(0, -heading, 0);
+
+        updateTopCam(dronePos);
+        updateRightCam(dronePos);
+    }
+
     public void updateTopCam(Vector3f pos) {
         topOrthoCamera.setPosition(pos.x, pos.y + Constants.ORTHO_OFFSET, pos.z);
     }
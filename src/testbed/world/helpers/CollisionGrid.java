@@ -0,0 +1,148 @@
+package testbed.world.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Broadphase for drone collisions: the drones are hashed into a uniform grid with cells as large as the
+ * collision range, so only drones in the same or neighbouring cells are compared.
+ * The cost is linear in the number of drones as long as they are not all packed together.
+ * <p>
+ * With findSweptPairs the drones are spheres moving along a segment during the tick, so two fast drones
+ * can not fly through each other between two ticks. The cells then grow with the largest displacement.
+ * <p>
+ * The arrays are reused between calls, so finding the pairs does not allocate once the grid has grown
+ * to the number of drones.
+ */
+public class CollisionGrid {
+
+    public interface PairConsumer {
+        void accept(int a, int b);
+    }
+
+    private final float range;
+
+    /**
+     * Hash table of cells: head holds the first drone of a chain, next the following drone, -1 ends a chain.
+     * A chain can hold drones of different cells that hash to the same slot, so the cell is checked as well.
+     */
+    private int[] head = new int[0];
+    private int[] next = new int[0];
+    private int[] cellX = new int[0], cellY = new int[0], cellZ = new int[0];
+    private int mask;
+
+    private float[] midpoints = new float[0];
+
+    public CollisionGrid(float range) {
+        this.range = range;
+    }
+
+    /**
+     * Calls consumer for every pair of drones (a, b) with a < b that are at most the range apart.
+     *
+     * @param positions x, y and z of every drone after each other
+     * @param n         The number of drones
+     * @return the number of pairs found
+     */
+    public int findPairs(float[] positions, int n, PairConsumer consumer) {
+        return findSweptPairs(positions, positions, n, consumer);
+    }
+
+    /**
+     * Calls consumer for every pair of drones (a, b) with a < b that come within the range of each other
+     * while they move in a straight line from their start to their end position.
+     *
+     * @param start x, y and z of every drone at the start of the tick
+     * @param end   x, y and z of every drone at the end of the tick
+     * @param n     The number of drones
+     * @return the number of pairs found
+     */
+    public int findSweptPairs(float[] start, float[] end, int n, PairConsumer consumer) {
+        ensureCapacity(n);
+        Arrays.fill(head, -1);
+
+        // two segments that come within the range have midpoints at most range + both half lengths apart
+        float maxHalfLength = 0;
+        for (int i = 0; i < 3 * n; i += 3) {
+            float dx = end[i] - start[i], dy = end[i + 1] - start[i + 1], dz = end[i + 2] - start[i + 2];
+            maxHalfLength = Math.max(maxHalfLength, (float) Math.sqrt(dx * dx + dy * dy + dz * dz) / 2);
+            midpoints[i] = start[i] + dx / 2;
+            midpoints[i + 1] = start[i + 1] + dy / 2;
+            midpoints[i + 2] = start[i + 2] + dz / 2;
+        }
+        float cellSize = range + 2 * maxHalfLength;
+
+        int pairs = 0;
+        for (int i = 0; i < n; i++) {
+            int cx = cell(midpoints[3 * i], cellSize), cy = cell(midpoints[3 * i + 1], cellSize),
+                    cz = cell(midpoints[3 * i + 2], cellSize);
+
+            // only drones inserted before are compared, so every pair is found once
+            for (int dx = -1; dx <= 1; dx++)
+                for (int dy = -1; dy <= 1; dy++)
+                    for (int dz = -1; dz <= 1; dz++) {
+                        int nx = cx + dx, ny = cy + dy, nz = cz + dz;
+                        for (int j = head[hash(nx, ny, nz)]; j != -1; j = next[j]) {
+                            if (cellX[j] != nx || cellY[j] != ny || cellZ[j] != nz)
+                                continue;
+
+                            if (closestDistance(start, end, j, i) <= range) {
+                                consumer.accept(j, i);
+                                pairs++;
+                            }
+                        }
+                    }
+
+            cellX[i] = cx;
+            cellY[i] = cy;
+            cellZ[i] = cz;
+            int slot = hash(cx, cy, cz);
+            next[i] = head[slot];
+            head[slot] = i;
+        }
+        return pairs;
+    }
+
+    /**
+     * Smallest distance between drones a and b during the tick, both moving at a constant velocity.
+     */
+    private static float closestDistance(float[] start, float[] end, int a, int b) {
+        int ia = 3 * a, ib = 3 * b;
+
+        // b relative to a at the start, and its relative displacement
+        float ex = start[ia] - start[ib], ey = start[ia + 1] - start[ib + 1], ez = start[ia + 2] - start[ib + 2];
+        float mx = (end[ia] - start[ia]) - (end[ib] - start[ib]);
+        float my = (end[ia + 1] - start[ia + 1]) - (end[ib + 1] - start[ib + 1]);
+        float mz = (end[ia + 2] - start[ia + 2]) - (end[ib + 2] - start[ib + 2]);
+
+        float t = 0;
+        float squareMotion = mx * mx + my * my + mz * mz;
+        if (squareMotion > 0)
+            t = Math.max(0, Math.min(1, -(ex * mx + ey * my + ez * mz) / squareMotion));
+
+        ex += t * mx;
+        ey += t * my;
+        ez += t * mz;
+        return (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+    }
+
+    private static int cell(float coordinate, float cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int hash(int x, int y, int z) {
+        return (x * 73856093 ^ y * 19349663 ^ z * 83492791) & mask;
+    }
+
+    private void ensureCapacity(int n) {
+        if (next.length < n) {
+            int capacity = Math.max(16, Integer.highestOneBit(Math.max(n - 1, 1)) << 1);
+            next = new int[capacity];
+            cellX = new int[capacity];
+            cellY = new int[capacity];
+            cellZ = new int[capacity];
+            midpoints = new float[3 * capacity];
+            head = new int[2 * capacity];
+            mask = head.length - 1;
+        }
+    }
+}
@@ -1,32 +1,47 @@
 package testbed.world.helpers;
 
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.swing.JFrame;
-import javax.swing.JOptionPane;
 
 import org.joml.Vector3f;
 
 import interfaces.AutopilotConfig;
+import testbed.Integrators;
 import testbed.Physics;
 import testbed.entities.WorldObject;
 import testbed.entities.airport.Airport;
 import testbed.entities.drone.DroneSkeleton;
 import testbed.entities.trail.Trail;
 import testbed.entities.packages.Package;
+import utils.AirportIndex;
 import utils.Constants;
 import utils.FloatMath;
 import utils.PhysicsException;
+import utils.Utils;
 
 public class DroneHelper {
 
     private final int nbDrones;
     private int index;
-    public Map<String, Integer> droneIds;
+
+    /**
+     * Drones are indexed densely in the order they were added, a bit is cleared when the drone is removed.
+     * The names are only needed when adding drones and for the lookups by name.
+     */
+    private final BitSet alive;
+    private final Map<String, Integer> droneNames;
+    private final int[] updateIds;
+
+    /**
+     * Drones that were removed because of an error or a collision, and the packages they carried
+     */
+    private int crashedDrones, lostPackages;
 
     private WorldObject[][] droneModels;
     private Physics[] physics;
@@ -36,10 +51,36 @@ public class DroneHelper {
     private JFrame rootFrame;
     private final boolean wantPhysics;
 
+    /**
+     * Parallel physics, null when the drones are stepped one after another
+     */
+    private ForkJoinPool physicsPool;
+    private final PhysicsException[] physicsErrors;
+
+    /**
+     * Broadphase for the collisions between drones, with reused buffers.
+     * The drones are swept from their position before the physics update to the one after.
+     */
+    private final CollisionGrid collisionGrid;
+    private final int[] collisionIds;
+    private final float[] previousPositions;
+    private final float[] collisionStart, collisionEnd;
+    private final boolean[] collided;
+    private final Vector3f collisionPos = new Vector3f();
+
+    /**
+     * The integrator of every drone, it sub-steps on the ground if groundSubSteps is larger than 1
+     */
+    private Integrators.Kind integrator = Integrators.Kind.FORWARD_EULER;
+    private int groundSubSteps = Constants.GROUND_SUB_STEPS;
+    private boolean quaternions;
+
     public DroneHelper(boolean wantPhysics, int nbDrones) {
         this.nbDrones = nbDrones;
         this.index = -1;
-        this.droneIds = new HashMap<>();
+        this.alive = new BitSet(nbDrones);
+        this.droneNames = new HashMap<>();
+        this.updateIds = new int[nbDrones];
 
         this.droneModels = new WorldObject[nbDrones][];
         this.physics = new Physics[nbDrones];
@@ -47,6 +88,14 @@ public class DroneHelper {
         this.packages = new Package[nbDrones];
 
         this.wantPhysics = wantPhysics;
+        this.physicsErrors = new PhysicsException[nbDrones];
+
+        this.collisionGrid = new CollisionGrid(Constants.COLLISION_RANGE);
+        this.collisionIds = new int[nbDrones];
+        this.previousPositions = new float[3 * nbDrones];
+        this.collisionStart = new float[3 * nbDrones];
+        this.collisionEnd = new float[3 * nbDrones];
+        this.collided = new boolean[nbDrones];
     }
 
 
@@ -55,49 +104,161 @@ public class DroneHelper {
     }
 
 
+    /**
+     * Steps the physics of the drones in parallel on the given pool,
+     * or one after another on the game loop thread if the pool is null.
+     */
+    public void setPhysicsPool(ForkJoinPool physicsPool) {
+        this.physicsPool = physicsPool;
+    }
+
+    public ForkJoinPool getPhysicsPool() {
+        return physicsPool;
+    }
+
+
+    /**
+     * Sets the integrator for all drones.
+     */
+    public void setIntegrator(Integrators.Kind integrator) {
+        this.integrator = integrator;
+        updateIntegrators();
+    }
+
+    public Integrators.Kind getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Sets the number of steps per update while the wheels of a drone touch the ground, 1 to never sub-step.
+     */
+    public void setGroundSubSteps(int groundSubSteps) {
+        this.groundSubSteps = groundSubSteps;
+        updateIntegrators();
+    }
+
+    public int getGroundSubSteps() {
+        return groundSubSteps;
+    }
+
+    private void updateIntegrators() {
+        for (int droneId = firstDrone(); droneId >= 0; droneId = nextDrone(droneId))
+            physics[droneId].setIntegrator(Integrators.create(integrator, groundSubSteps));
+    }
+
+
+    /**
+     * Keeps the orientation of all drones as a quaternion instead of a matrix.
+     */
+    public void setQuaternions(boolean quaternions) {
+        this.quaternions = quaternions;
+
+        for (int droneId = firstDrone(); droneId >= 0; droneId = nextDrone(droneId))
+            physics[droneId].setQuaternions(quaternions);
+    }
+
+    public boolean usesQuaternions() {
+        return quaternions;
+    }
+
+
     public int getMaxNbDrones() {
         return this.nbDrones;
     }
 
+    public boolean hasPhysics() {
+        return wantPhysics;
+    }
+
+
+    public int getNbDrones() {
+        return alive.cardinality();
+    }
+
+    public boolean hasDrones() {
+        return !alive.isEmpty();
+    }
+
+    public int getNbCrashedDrones() {
+        return crashedDrones;
+    }
+
+    public int getNbLostPackages() {
+        return lostPackages;
+    }
+
+    public boolean isAlive(int droneId) {
+        return droneId >= 0 && alive.get(droneId);
+    }
+
+    /**
+     * The drone with the lowest id that is still alive, -1 if there is none.
+     * Iterate over the drones with
+     * {@code for (int id = firstDrone(); id >= 0; id = nextDrone(id))}.
+     */
+    public int firstDrone() {
+        return alive.nextSetBit(0);
+    }
+
+    /**
+     * The drone with the lowest id higher than the given one that is still alive, -1 if there is none.
+     */
+    public int nextDrone(int droneId) {
+        return droneId + 1 < nbDrones ? alive.nextSetBit(droneId + 1) : -1;
+    }
+
+    /**
+     * The id of the drone with the given name, -1 if there is none.
+     */
+    public int getDroneId(String droneName) {
+        Integer droneId = droneNames.get(droneName);
+        return droneId == null ? -1 : droneId;
+    }
+
 
     public Physics getDronePhysics(String droneId) {
-        return droneIds.containsKey(droneId) ? physics[droneIds.get(droneId)] : null;
+        return getDronePhysics(getDroneId(droneId));
     }
 
     public Physics getDronePhysics(int droneId) {
-        return droneIds.containsValue(droneId) ? physics[droneId] : null;
+        return isAlive(droneId) ? physics[droneId] : null;
     }
 
 
     public Trail getDroneTrail(String droneId) {
-        return droneIds.containsKey(droneId) ? trails[droneIds.get(droneId)] : null;
+        return getDroneTrail(getDroneId(droneId));
     }
 
     public Trail getDroneTrail(int droneId) {
-        return droneIds.containsValue(droneId) ? trails[droneId] : null;
+        return isAlive(droneId) ? trails[droneId] : null;
     }
 
 
     public Package getDronePackage(String droneId) {
-        return droneIds.containsKey(droneId) ? packages[droneIds.get(droneId)] : null;
+        return getDronePackage(getDroneId(droneId));
     }
 
     public Package getDronePackage(int droneId) {
-        return droneIds.containsValue(droneId) ? packages[droneId] : null;
+        return isAlive(droneId) ? packages[droneId] : null;
     }
 
 
     public WorldObject[] getDroneItems(int droneId) {
-        return droneIds.containsValue(droneId) ? droneModels[droneId] : null;
+        return isAlive(droneId) ? droneModels[droneId] : null;
     }
 
     public AutopilotConfig getDroneConfig(int droneId) {
-        return droneIds.containsValue(droneId) ? physics[droneId].getConfig() : null;
+        return isAlive(droneId) ? physics[droneId].getConfig() : null;
     }
 
 
     public void addDrone(AutopilotConfig config, Vector3f startPos, Vector3f startVel, float startHeading, List<Airport> airports) {
-        if (droneIds.containsKey(config.getDroneID()))
+        addDrone(config, startPos, startVel, startHeading, airports, Airport.index(airports));
+    }
+
+    public void addDrone(AutopilotConfig config, Vector3f startPos, Vector3f startVel, float startHeading,
+                         List<Airport> airports, AirportIndex airportIndex) {
+        if (droneNames.containsKey(config.getDroneID()))
             throw new IllegalArgumentException("No duplicate drone names allowed");
 
         this.index++;
@@ -105,7 +266,8 @@ public class DroneHelper {
         if (index == nbDrones)
             throw new IllegalArgumentException("Max amount of drones reached");
 
-        droneIds.put(config.getDroneID(), index);
+        droneNames.put(config.getDroneID(), index);
+        alive.set(index);
 
         DroneSkeleton droneMesh = new DroneSkeleton(config);
         WorldObject left = new WorldObject(droneMesh.getLeft());
@@ -122,7 +284,9 @@ public class DroneHelper {
         droneModels[index] = droneItems;
 
         Physics physic = new Physics();
-        physic.init(config, startPos, startVel, startHeading, airports);
+        physic.setIntegrator(Integrators.create(integrator, groundSubSteps));
+        physic.setQuaternions(quaternions);
+        physic.init(config, startPos, startVel, startHeading, airports, airportIndex);
 
         physics[index] = physic;
 
@@ -131,7 +295,16 @@ public class DroneHelper {
 
 
     public void removeDrone(String droneId, UpdateHelper updateHelper) {
-        int index = droneIds.remove(droneId);
+        removeDrone(getDroneId(droneId), updateHelper);
+    }
+
+    public void removeDrone(int index, UpdateHelper updateHelper) {
+        droneNames.remove(physics[index].getConfig().getDroneID());
+        alive.clear(index);
+
+        crashedDrones++;
+        if (packages[index] != null)
+            lostPackages++;
 
         WorldObject[] droneItems = droneModels[index];
 
@@ -148,10 +321,6 @@ public class DroneHelper {
             updateHelper.nextFollowDrone();
     }
 
-    public void removeDrone(int droneId, UpdateHelper updateHelper) {
-        removeDrone(physics[droneId].getConfig().getDroneID(), updateHelper);
-    }
-
 
     public void collectPackage(int droneId, Package pack) {
         pack.pickUp();
@@ -177,22 +346,37 @@ public class DroneHelper {
         if (!wantPhysics)
             return;
 
-        Set<Integer> dronesToRemove = new HashSet<>();
-        for (int droneId : droneIds.values()) {
-            try {
-                getDronePhysics(droneId).update(interval);
-            } catch (PhysicsException e) {
-                JOptionPane.showMessageDialog(rootFrame,
-                        "A physics error occured for drone " + getDronePhysics(droneId).getConfig().getDroneID()
-                                + ": " + e.getMessage(),
-                        "Physics Exception", JOptionPane.ERROR_MESSAGE);
-
-                dronesToRemove.add(droneId);
-            } catch (NullPointerException ignored) {
-            }
+        // in order of id, so errors are always handled in the same order
+        int n = aliveIds(updateIds);
+
+        for (int i = 0; i < n; i++) {
+            int droneId = updateIds[i];
+            physics[droneId].getPosition(collisionPos);
+            previousPositions[3 * droneId] = collisionPos.x;
+            previousPositions[3 * droneId + 1] = collisionPos.y;
+            previousPositions[3 * droneId + 2] = collisionPos.z;
+        }
+
+        if (physicsPool == null) {
+            for (int i = 0; i < n; i++)
+                stepPhysics(updateIds[i], interval);
+        } else {
+            physicsPool.invoke(new PhysicsTask(updateIds, 0, n, interval));
         }
 
-        for (Integer droneId : dronesToRemove) {
+        for (int i = 0; i < n; i++) {
+            int droneId = updateIds[i];
+            PhysicsException e = physicsErrors[droneId];
+            if (e == null)
+                continue;
+
+            physicsErrors[droneId] = null;
+
+            Utils.showError(rootFrame,
+                    "A physics error occured for drone " + getDronePhysics(droneId).getConfig().getDroneID()
+                            + ": " + e.getMessage(),
+                    "Physics Exception");
+
             if (packages[droneId] != null)
                 packages[droneId].crashed();
             removeDrone(droneId, updateHelper);
@@ -201,19 +385,76 @@ public class DroneHelper {
         checkCollision(updateHelper);
     }
 
+    /**
+     * Fills the array with the ids of the drones that are alive, in ascending order.
+     *
+     * @return the number of drones
+     */
+    private int aliveIds(int[] dest) {
+        int n = 0;
+        for (int droneId = firstDrone(); droneId >= 0; droneId = nextDrone(droneId))
+            dest[n++] = droneId;
+        return n;
+    }
+
+    /**
+     * Updates the physics of one drone, a PhysicsException is stored in physicsErrors.
+     * Only touches the state of this drone, so it is safe to call for several drones at once.
+     */
+    private void stepPhysics(int droneId, float interval) {
+        try {
+            physics[droneId].update(interval);
+        } catch (PhysicsException e) {
+            physicsErrors[droneId] = e;
+        } catch (NullPointerException ignored) {
+        }
+    }
+
+    /**
+     * Splits the drones over the physics pool.
+     */
+    @SuppressWarnings("serial")
+    private class PhysicsTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 4;
+
+        private final int[] ids;
+        private final int from, to;
+        private final float interval;
+
+        PhysicsTask(int[] ids, int from, int to, float interval) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.interval = interval;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++)
+                    stepPhysics(ids[i], interval);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PhysicsTask(ids, from, mid, interval),
+                        new PhysicsTask(ids, mid, to, interval));
+            }
+        }
+    }
+
     private void updateTrails() {
-        for (String droneId : droneIds.keySet()) {
-            getDroneTrail(droneId).leaveTrail(
-                    getDronePhysics(droneId).getPosition());
+        for (int droneId = firstDrone(); droneId >= 0; droneId = nextDrone(droneId)) {
+            trails[droneId].leaveTrail(
+                    physics[droneId].getPosition());
         }
     }
 
     private void updateDroneItems() {
-        for (String droneId : droneIds.keySet()) {
-            Physics physics = getDronePhysics(droneId);
+        for (int droneId = firstDrone(); droneId >= 0; droneId = nextDrone(droneId)) {
+            Physics physics = this.physics[droneId];
             Vector3f dronePos = physics.getPosition();
             // Update the position of each drone item
-            for (WorldObject droneItem : droneModels[droneIds.get(droneId)]) {
+            for (WorldObject droneItem : droneModels[droneId]) {
                 droneItem.setPosition(dronePos.x, dronePos.y, dronePos.z);
                 droneItem.setRotation(-physics.getPitch(),
                         -physics.getHeading(), -physics.getRoll());
@@ -222,22 +463,22 @@ public class DroneHelper {
             translateWheels(droneId);
             rotateWings(droneId);
 
-            Package pack = getDronePackage(droneId);
+            Package pack = packages[droneId];
             if (pack != null)
                 pack.setPosition(dronePos.add(new Vector3f(0, -0.85f, 0), new Vector3f()));
         }
     }
 
-    private void rotateWings(String droneId) {
-        Physics physics = getDronePhysics(droneId);
+    private void rotateWings(int droneId) {
+        Physics physics = this.physics[droneId];
 
-        droneModels[droneIds.get(droneId)][Constants.DRONE_LEFT_WING].setRotation(-physics.getPitch() - physics.getLWInclination(), -physics.getHeading(), -physics.getRoll());
-        droneModels[droneIds.get(droneId)][Constants.DRONE_RIGHT_WING].setRotation(-physics.getPitch() - physics.getRWInclination(), -physics.getHeading(), -physics.getRoll());
+        droneModels[droneId][Constants.DRONE_LEFT_WING].setRotation(-physics.getPitch() - physics.getLWInclination(), -physics.getHeading(), -physics.getRoll());
+        droneModels[droneId][Constants.DRONE_RIGHT_WING].setRotation(-physics.getPitch() - physics.getRWInclination(), -physics.getHeading(), -physics.getRoll());
 
     }
 
-    private void translateWheels(String droneId) {
-        Physics physics = getDronePhysics(droneId);
+    private void translateWheels(int droneId) {
+        Physics physics = this.physics[droneId];
         setWheel(droneId, Constants.DRONE_WHEEL_FRONT, 0, physics.getConfig()
                 .getWheelY(), physics.getConfig().getFrontWheelZ());
         setWheel(droneId, Constants.DRONE_WHEEL_BACK_LEFT, -physics.getConfig()
@@ -248,39 +489,52 @@ public class DroneHelper {
                 .getConfig().getRearWheelZ());
     }
 
-    private void setWheel(String droneId, int id, float x, float y, float z) {
-        Vector3f wheel = droneModels[droneIds.get(droneId)][id].getPosition();
-        Vector3f wheelT = FloatMath.transform(getDronePhysics(droneId)
+    private void setWheel(int droneId, int id, float x, float y, float z) {
+        Vector3f wheel = droneModels[droneId][id].getPosition();
+        Vector3f wheelT = FloatMath.transform(physics[droneId]
                 .getTransMat(), wheel);
 
         wheelT.add(new Vector3f(x, y, z));
-        Physics physics = getDronePhysics(droneId);
+        Physics physics = this.physics[droneId];
         wheelT = FloatMath.transform(physics.getTransMatInv(), wheelT);
-        droneModels[droneIds.get(droneId)][id].setPosition(wheelT.x, wheelT.y, wheelT.z);
+        droneModels[droneId][id].setPosition(wheelT.x, wheelT.y, wheelT.z);
     }
 
 
     private void checkCollision(UpdateHelper updateHelper) {
-        Set<Integer> dronesToRemove = new HashSet<>();
-        for (int i : droneIds.values()) {
-            for (int j : droneIds.values()) {
-                if (i < j)
-                    if (FloatMath.norm(physics[i].getPosition().sub(
-                            physics[j].getPosition())) <= Constants.COLLISION_RANGE) {
-                        JOptionPane.showMessageDialog(rootFrame, "Drone "
-                                        + getDroneConfig(i).getDroneID() + " and drone " + getDroneConfig(j).getDroneID()
-                                        + " collided.", "Collision Exception",
-                                JOptionPane.ERROR_MESSAGE);
-                        dronesToRemove.add(i);
-                        dronesToRemove.add(j);
-                    }
-            }
+        // in order of id, so collisions are always reported in the same order
+        int n = aliveIds(collisionIds);
+
+        for (int i = 0; i < n; i++) {
+            int droneId = collisionIds[i];
+            System.arraycopy(previousPositions, 3 * droneId, collisionStart, 3 * i, 3);
+
+            physics[droneId].getPosition(collisionPos);
+            collisionEnd[3 * i] = collisionPos.x;
+            collisionEnd[3 * i + 1] = collisionPos.y;
+            collisionEnd[3 * i + 2] = collisionPos.z;
         }
 
-        for (int i : dronesToRemove) {
+        if (collisionGrid.findSweptPairs(collisionStart, collisionEnd, n, this::collided) == 0)
+            return;
+
+        for (int i = 0; i < nbDrones; i++) {
+            if (!collided[i])
+                continue;
+
+            collided[i] = false;
             if (packages[i] != null)
                 packages[i].crashed();
             removeDrone(i, updateHelper);
         }
     }
+
+    private void collided(int a, int b) {
+        int i = collisionIds[a], j = collisionIds[b];
+        Utils.showError(rootFrame, "Drone "
+                + getDroneConfig(i).getDroneID() + " and drone " + getDroneConfig(j).getDroneID()
+                + " collided.", "Collision Exception");
+        collided[i] = true;
+        collided[j] = true;
+    }
 }
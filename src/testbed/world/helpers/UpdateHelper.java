@@ -1,31 +1,28 @@
 package testbed.world.helpers;
 
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import interfaces.AutopilotModule;
+import interfaces.BulkAutopilotModule;
 import interfaces.AutopilotOutputs;
 import testbed.Physics;
 import testbed.entities.packages.PackageGenerator;
 import testbed.entities.airport.Airport;
 import testbed.entities.packages.Package;
 import testbed.gui.TestbedGui;
+import testbed.world.scenario.ScenarioRecorder;
+import testbed.world.scenario.ScenarioReplay;
 
-import org.joml.Vector2f;
 import org.joml.Vector3f;
 
-import utils.Constants;
-import utils.FloatMath;
+import utils.MutableInputs;
 import utils.PhysicsException;
 import utils.IO.MouseInput;
 import utils.Utils;
 
-import javax.swing.JOptionPane;
-
 public class UpdateHelper {
 
     /**
@@ -37,7 +34,12 @@ public class UpdateHelper {
      * Camera update cycle
      */
     private CameraHelper cameraHelper;
-    private int followDrone;
+    private volatile int followDrone;
+
+    /**
+     * False when the cameras are updated by the render thread
+     */
+    private boolean updateCameras = true;
 
     /**
      * Airports
@@ -50,7 +52,29 @@ public class UpdateHelper {
     private AutopilotModule autopilotModule;
 
     /**
-     * TestbedGUI update
+     * Buffers for a BulkAutopilotModule, null otherwise
+     */
+    private int[] moduleDrones;
+    private float[] moduleStates, moduleOutputs;
+
+    /**
+     * The inputs given to the autopilot module, one per drone, overwritten every update
+     */
+    private MutableInputs[] moduleInputs;
+
+    /**
+     * Records the package requests and outputs when set
+     */
+    private ScenarioRecorder recorder;
+
+    /**
+     * Takes the package requests and outputs from a recording instead of the generator, gui and module when set
+     */
+    private ScenarioReplay replay;
+    private final float[] replayOutputs = new float[BulkAutopilotModule.OUTPUT_SIZE];
+
+    /**
+     * TestbedGUI update, null when running headless
      */
     private TestbedGui testbedGui;
 
@@ -58,6 +82,7 @@ public class UpdateHelper {
      * The time passed since start of the simulation
      */
     private float time;
+    private final Vector3f tmp = new Vector3f();
 
     /**
      * Drone update
@@ -69,7 +94,22 @@ public class UpdateHelper {
      */
     private Set<Package> packages;
     private PackageGenerator generator;
-    private Map<Gate, Package> fromPackages;
+
+    /**
+     * The package waiting at every gate, indexed by gateIndex
+     */
+    private Package[] gatePackages;
+
+    /**
+     * The gate every drone stands on, -1 when it is not on a gate.
+     * Only changes when the airport location of the drone changes.
+     */
+    private int[] droneGates;
+
+    /**
+     * Packages that were accepted, and the ones that were delivered
+     */
+    private int requestedPackages, deliveredPackages;
 
     public UpdateHelper(DroneHelper droneHelper, int TIME_SLOWDOWN_MULTIPLIER, CameraHelper cameraHelper, List<Airport> airports,
                         AutopilotModule module, TestbedGui testbedGui, Set<Package> packages, PackageGenerator generator) {
@@ -78,14 +118,46 @@ public class UpdateHelper {
         this.airports = airports;
         this.followDrone = 0;
         this.autopilotModule = module;
+        this.moduleInputs = new MutableInputs[droneHelper.getMaxNbDrones()];
+        for (int i = 0; i < moduleInputs.length; i++)
+            moduleInputs[i] = new MutableInputs();
+        if (module instanceof BulkAutopilotModule) {
+            int nbDrones = droneHelper.getMaxNbDrones();
+            this.moduleDrones = new int[nbDrones];
+            this.moduleStates = new float[nbDrones * BulkAutopilotModule.STATE_SIZE];
+            this.moduleOutputs = new float[nbDrones * BulkAutopilotModule.OUTPUT_SIZE];
+        }
         this.testbedGui = testbedGui;
-        this.testbedGui.setActiveDrone(followDrone);
+        if (testbedGui != null)
+            this.testbedGui.setActiveDrone(followDrone);
         this.time = 0;
         this.droneHelper = droneHelper;
         this.droneHelper.setRootFrame(testbedGui);
         this.packages = packages;
         this.generator = generator;
-        this.fromPackages = new HashMap<>();
+        this.gatePackages = new Package[2 * airports.size()];
+        this.droneGates = new int[droneHelper.getMaxNbDrones()];
+        Arrays.fill(droneGates, -1);
+    }
+
+    public void setRecorder(ScenarioRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public void setReplay(ScenarioReplay replay) {
+        this.replay = replay;
+    }
+
+    public int getNbRequestedPackages() {
+        return requestedPackages;
+    }
+
+    public int getNbDeliveredPackages() {
+        return deliveredPackages;
+    }
+
+    public void setUpdateCameras(boolean updateCameras) {
+        this.updateCameras = updateCameras;
     }
 
     public int getFollowDrone() {
@@ -93,22 +165,22 @@ public class UpdateHelper {
     }
 
     public void nextFollowDrone() {
-        boolean found = false;
-        for (Entry<String, Integer> a : droneHelper.droneIds.entrySet()) {
-            if (found) {
-                this.followDrone = a.getValue();
-                this.testbedGui.setActiveDrone(followDrone);
-                return;
-            }
-            if (a.getValue() == followDrone) found = true;
-        }
+        int next = droneHelper.nextDrone(followDrone);
+        if (next < 0)
+            next = droneHelper.firstDrone();
 
-        this.followDrone = droneHelper.droneIds.entrySet().iterator().next().getValue();
-        this.testbedGui.setActiveDrone(followDrone);
+        if (next >= 0)
+            setActiveDrone(next);
+    }
+
+    private void setActiveDrone(int droneId) {
+        this.followDrone = droneId;
+        if (testbedGui != null)
+            this.testbedGui.setActiveDrone(followDrone);
     }
 
     public void setFollowDrone(int droneId) {
-        if (this.droneHelper.droneIds.containsValue(droneId))
+        if (this.droneHelper.isAlive(droneId))
             this.followDrone = droneId;
     }
 
@@ -122,19 +194,25 @@ public class UpdateHelper {
     public void updateCycle(float interval, MouseInput mouseInput) {
         this.time += interval / TIME_SLOWDOWN_MULTIPLIER;
 
+        if (recorder != null)
+            recorder.writeTick(interval);
+
         droneHelper.update(interval / TIME_SLOWDOWN_MULTIPLIER, this);
 
-        if (droneHelper.droneIds.isEmpty()) return;
+        if (!droneHelper.hasDrones()) return;
 
         updatePackages();
 
-        Vector3f newDronePos = droneHelper.getDronePhysics(followDrone).getPosition();
+        if (testbedGui != null && updateCameras) {
+            Vector3f newDronePos = droneHelper.getDronePhysics(followDrone).getPosition();
 
-        updateCameraPositions(mouseInput, newDronePos, followDrone);
+            updateCameraPositions(mouseInput, newDronePos, followDrone);
+        }
 
         updateModule();
 
-        testbedGui.repaint();
+        if (testbedGui != null)
+            testbedGui.repaint();
     }
 
 
@@ -143,130 +221,198 @@ public class UpdateHelper {
         Physics physics = droneHelper.getDronePhysics(followDrone);
 
         // Update camera based on mouse
-        cameraHelper.freeCamera.movePosition(cameraHelper.getCameraInc().x * Constants.CAMERA_POS_STEP,
-                cameraHelper.getCameraInc().y * Constants.CAMERA_POS_STEP,
-                cameraHelper.getCameraInc().z * Constants.CAMERA_POS_STEP
-        );
-        if (mouseInput.isRightButtonPressed()) {
-            Vector2f rotVec = mouseInput.getDisplVec();
-            cameraHelper.freeCamera.moveRotation(FloatMath.toRadians(rotVec.x * Constants.MOUSE_SENSITIVITY),
-                    FloatMath.toRadians(rotVec.y * Constants.MOUSE_SENSITIVITY), 0);
-        }
-
-
-        cameraHelper.droneCamera.setPosition(newDronePos.x, newDronePos.y, newDronePos.z);
-        cameraHelper.droneCamera.setRotation(-physics.getPitch(), -physics.getHeading(), -physics.getRoll());
-
-        float offset = 17.5f;
-        cameraHelper.chaseCamera.setPosition(newDronePos.x + offset * (float) Math.sin(physics.getHeading()),
-                newDronePos.y, newDronePos.z + offset * (float) Math.cos(physics.getHeading()));
-        cameraHelper.chaseCamera.setRotation(0, -physics.getHeading(), 0);
+        cameraHelper.moveFreeCamera(mouseInput, 1);
 
-        cameraHelper.updateTopCam(newDronePos);
-        cameraHelper.updateRightCam(newDronePos);
+        cameraHelper.followDrone(newDronePos, physics.getHeading(), physics.getPitch(), physics.getRoll());
     }
 
 
     private void updateModule() {
+        if (replay != null) {
+            updateReplay();
+            return;
+        }
+
         if (autopilotModule == null)
             return;
 
-        for (int droneId : droneHelper.droneIds.values()) {
+        if (autopilotModule instanceof BulkAutopilotModule) {
+            updateBulkModule((BulkAutopilotModule) autopilotModule);
+            return;
+        }
+
+        for (int droneId = droneHelper.firstDrone(); droneId >= 0; droneId = droneHelper.nextDrone(droneId)) {
             Physics physics = droneHelper.getDronePhysics(droneId);
-            autopilotModule.startTimeHasPassed(droneId, Utils.buildInputs(null, physics.getPosition(),
+            Vector3f pos = physics.getPosition(tmp);
+            autopilotModule.startTimeHasPassed(droneId, moduleInputs[droneId].set(null, pos.x, pos.y, pos.z,
                     physics.getHeading(), physics.getPitch(), physics.getRoll(), this.time));
         }
 
-        for (int droneId : droneHelper.droneIds.values()) {
+        for (int droneId = droneHelper.firstDrone(); droneId >= 0; droneId = droneHelper.nextDrone(droneId)) {
             AutopilotOutputs output = autopilotModule.completeTimeHasPassed(droneId);
+            if (recorder != null)
+                recorder.writeOutputs(droneId, output);
 
             try {
                 droneHelper.getDronePhysics(droneId).updateDrone(output);
             } catch (PhysicsException e) {
-                JOptionPane.showMessageDialog(testbedGui, "An illegal force was entered for drone " +
-                                droneHelper.getDroneConfig(droneId).getDroneID() + ": " + e.getMessage(),
-                        "Physics Exception", JOptionPane.ERROR_MESSAGE);
-                droneHelper.removeDrone(droneId, this);
+                illegalForce(droneId, e);
+            }
+        }
+    }
+
+
+    /**
+     * Same as the calls to startTimeHasPassed and completeTimeHasPassed in updateModule, in one call.
+     */
+    private void updateBulkModule(BulkAutopilotModule module) {
+        int n = 0;
+        for (int droneId = droneHelper.firstDrone(); droneId >= 0; droneId = droneHelper.nextDrone(droneId)) {
+            Physics physics = droneHelper.getDronePhysics(droneId);
+            Vector3f pos = physics.getPosition(tmp);
+
+            int offset = n * BulkAutopilotModule.STATE_SIZE;
+            moduleStates[offset] = pos.x;
+            moduleStates[offset + 1] = pos.y;
+            moduleStates[offset + 2] = pos.z;
+            moduleStates[offset + 3] = physics.getHeading();
+            moduleStates[offset + 4] = physics.getPitch();
+            moduleStates[offset + 5] = physics.getRoll();
+            moduleStates[offset + 6] = this.time;
+            moduleDrones[n++] = droneId;
+        }
+
+        module.timeHasPassed(moduleDrones, n, moduleStates, moduleOutputs);
+
+        for (int i = 0; i < n; i++) {
+            int droneId = moduleDrones[i];
+            if (recorder != null)
+                recorder.writeOutputs(droneId, moduleOutputs, i * BulkAutopilotModule.OUTPUT_SIZE);
+
+            try {
+                droneHelper.getDronePhysics(droneId).updateDrone(moduleOutputs, i * BulkAutopilotModule.OUTPUT_SIZE);
+            } catch (PhysicsException e) {
+                illegalForce(droneId, e);
+            }
+        }
+    }
+
+
+    /**
+     * Applies the recorded outputs of this step. Outputs of drones that have already crashed
+     * mean the replay is not the same as the recording.
+     */
+    private void updateReplay() {
+        int droneId;
+        while ((droneId = replay.readOutputs(replayOutputs)) >= 0) {
+            if (!droneHelper.isAlive(droneId)) {
+                replay.missedOutputs();
+                continue;
+            }
+
+            try {
+                droneHelper.getDronePhysics(droneId).updateDrone(replayOutputs, 0);
+            } catch (PhysicsException e) {
+                illegalForce(droneId, e);
             }
         }
     }
 
+    private void illegalForce(int droneId, PhysicsException e) {
+        Utils.showError(testbedGui, "An illegal force was entered for drone " +
+                        droneHelper.getDroneConfig(droneId).getDroneID() + ": " + e.getMessage(),
+                "Physics Exception");
+        droneHelper.removeDrone(droneId, this);
+    }
+
 
     private void updatePackages() {
-        if (generator != null) {
+        for (int drone = droneHelper.firstDrone(); drone >= 0; drone = droneHelper.nextDrone(drone))
+            droneGates[drone] = gateIndex(droneHelper.getDronePhysics(drone));
+
+        if (replay != null) {
+            int[] newDetails;
+            while ((newDetails = replay.readPackage()) != null)
+                addPackage(newDetails);
+        }
+
+        if (generator != null && replay == null) {
             int[] newDetails = generator.generatePackage(this.time);
             if (newDetails != null)
                 addPackage(newDetails);
         }
 
-        int[] newDetails = testbedGui.getNewPackage();
-        testbedGui.removePackage();
-        if (newDetails != null)
-            addPackage(newDetails);
+        if (testbedGui != null && replay == null) {
+            int[] newDetails = testbedGui.getNewPackage();
+            testbedGui.removePackage();
+            if (newDetails != null)
+                addPackage(newDetails);
+        }
 
 
-        for (int drone : droneHelper.droneIds.values()) {
-            Physics physics = droneHelper.getDronePhysics(drone);
-            if (FloatMath.norm(physics.getVelocity()) > 1)
+        for (int drone = droneHelper.firstDrone(); drone >= 0; drone = droneHelper.nextDrone(drone)) {
+            int gate = droneGates[drone];
+            if (gate < 0)
                 continue;
 
-            int loc = physics.getAirportLocation();
-            Gate gate;
+            // only drones with a package to pick up or deliver at this gate have to stand still
             Package pack = droneHelper.getDronePackage(drone);
-            switch (loc) {
-                case Physics.GATE_0:
-                    gate = new Gate(physics.getAirportNb(), 0);
-                    if (pack == null) {
-                        if (fromPackages.containsKey(gate))
-                            droneHelper.collectPackage(drone, fromPackages.remove(gate));
-                    } else {
-                        if (new Gate(pack, false).equals(gate)) {
-                            packages.remove(pack);
-                            pack.cleanup();
-                            droneHelper.deliverPackage(drone);
-                        }
-                    }
-                    break;
-                case Physics.GATE_1:
-                    gate = new Gate(physics.getAirportNb(), 1);
-                    if (pack == null) {
-                        if (fromPackages.containsKey(gate))
-                            droneHelper.collectPackage(drone, fromPackages.remove(gate));
-                    } else {
-                        if (new Gate(pack, false).equals(gate)) {
-                            droneHelper.deliverPackage(drone);
-                            pack.cleanup();
-                            packages.remove(pack);
-                        }
-                    }
-                    break;
-                default:
-                    break;
+            if (pack == null ? gatePackages[gate] == null
+                    : gateIndex(pack.getDestAirport(), pack.getDestGate()) != gate)
+                continue;
+
+            if (droneHelper.getDronePhysics(drone).getSpeed() > 1)
+                continue;
+
+            if (pack == null) {
+                droneHelper.collectPackage(drone, gatePackages[gate]);
+                gatePackages[gate] = null;
+            } else {
+                droneHelper.deliverPackage(drone);
+                pack.cleanup();
+                packages.remove(pack);
+                deliveredPackages++;
             }
         }
     }
 
+    private static int gateIndex(int airportNb, int gateNb) {
+        return 2 * airportNb + gateNb;
+    }
+
+    private static int gateIndex(Physics physics) {
+        int loc = physics.getAirportLocation();
+        if (loc != Physics.GATE_0 && loc != Physics.GATE_1)
+            return -1;
+        return gateIndex(physics.getAirportNb(), loc - Physics.GATE_0);
+    }
+
     boolean started = false;
 
     private void addPackage(int[] details) {
+        if (recorder != null)
+            recorder.writePackage(details);
+
         Package newPackage = new Package(details);
-        Gate fromGate = new Gate(newPackage, true);
+        int fromGate = gateIndex(newPackage.getFromAirport(), newPackage.getFromGate());
 
         if (newPackage.getFromAirport() != newPackage.getDestAirport()
-                && !fromPackages.containsKey(fromGate)) {
+                && gatePackages[fromGate] == null) {
 
             if (started && droneCarryingPresent(fromGate)) return;
             started = true;
 
-            fromPackages.put(fromGate, newPackage);
+            gatePackages[fromGate] = newPackage;
             packages.add(newPackage);
+            requestedPackages++;
 
-            Airport port = airports.get(fromGate.airportNb);
+            Airport port = airports.get(newPackage.getFromAirport());
             Vector3f pos = new Vector3f(port.getPosition());
-            pos.add(port.getPerpDirection().mul(port.getWidth() / 2f * (fromGate.gateNb == 0 ? 1 : -1), new Vector3f()));
+            pos.add(port.getPerpDirection().mul(port.getWidth() / 2f * (newPackage.getFromGate() == 0 ? 1 : -1), new Vector3f()));
             newPackage.setPosition(pos.add(new Vector3f(0, 1, 0)));
 
-            testbedGui.addPackage(newPackage);
+            if (testbedGui != null)
+                testbedGui.addPackage(newPackage);
 
             if (autopilotModule != null)
                 autopilotModule.deliverPackage(newPackage.getFromAirport(), newPackage.getFromGate(),
@@ -274,51 +420,12 @@ public class UpdateHelper {
         }
     }
 
-    private boolean droneCarryingPresent(Gate fromGate) {
-        for (int id : droneHelper.droneIds.values()) {
-            if (droneHelper.getDronePhysics(id).getAirportNb() == fromGate.airportNb) {
-                int gateId = droneHelper.getDronePhysics(id).getAirportLocation() - Physics.GATE_0;
-                if (gateId == fromGate.gateNb) {
-                    return true;
-                }
-            }
+    private boolean droneCarryingPresent(int fromGate) {
+        for (int id = droneHelper.firstDrone(); id >= 0; id = droneHelper.nextDrone(id)) {
+            if (droneGates[id] == fromGate)
+                return true;
         }
         return false;
     }
 
-
-    private static class Gate {
-
-        public final int airportNb, gateNb;
-
-        public Gate(int airportNb, int gateNb) {
-            this.airportNb = airportNb;
-            this.gateNb = gateNb;
-        }
-
-        public Gate(Package pack, boolean from) {
-            if (from) {
-                this.airportNb = pack.getFromAirport();
-                this.gateNb = pack.getFromGate();
-            } else {
-                this.airportNb = pack.getDestAirport();
-                this.gateNb = pack.getDestGate();
-            }
-        }
-
-        @Override
-        public int hashCode() {
-            return 2048 * airportNb + gateNb;
-        }
-
-        @Override
-        public boolean equals(Object other) {
-            if (other == null)
-                return false;
-            if (!(other instanceof Gate))
-                return false;
-            return (this.airportNb == ((Gate) other).airportNb && this.gateNb == ((Gate) other).gateNb);
-        }
-    }
-
 }
@@ -11,8 +11,18 @@ import utils.FloatMath;
 @SuppressWarnings("unused")
 public class RandomWorld extends World {
 
+    private final long seed;
+
     public RandomWorld() {
+        this(1337);
+    }
+
+    /**
+     * @param seed The seed of the package generator
+     */
+    public RandomWorld(long seed) {
         super(1, true, 18);
+        this.seed = seed;
     }
 
     @Override
@@ -62,7 +72,7 @@ public class RandomWorld extends World {
     public void setupWorld() {
         this.ground = new Ground(50);
 
-        this.generator = PackageGenerators.random(0.005f, 9, 1337);
+        this.generator = PackageGenerators.random(0.005f, 9, seed);
     }
 
     @Override
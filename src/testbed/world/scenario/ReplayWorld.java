@@ -0,0 +1,104 @@
+package testbed.world.scenario;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import testbed.engine.Engine;
+import testbed.engine.Window;
+import testbed.entities.ground.Ground;
+import testbed.world.World;
+import utils.IO.MouseInput;
+
+/**
+ * Runs a recorded scenario again: the same airports and drones, the same package requests and the
+ * recorded autopilot outputs, with the recorded time steps. There is no autopilot module, so only
+ * the testbed itself is measured, on exactly the same workload every run.
+ * The physics uses the recorded integrator, ground sub-steps and orientation mode.
+ */
+public class ReplayWorld extends World {
+
+    private final ScenarioReplay replay;
+
+    public ReplayWorld(ScenarioReplay replay) {
+        super(replay.getTimeSlowdown(), replay.hasPhysics(), replay.getNbDrones(),
+                replay.getAirportWidth(), replay.getAirportLength());
+        this.replay = replay;
+
+        setIntegrator(replay.getIntegrator());
+        setGroundSubSteps(replay.getGroundSubSteps());
+        setQuaternions(replay.usesQuaternions());
+    }
+
+    public ReplayWorld(Path file) throws IOException {
+        this(new ScenarioReplay(file));
+    }
+
+    public ScenarioReplay getReplay() {
+        return replay;
+    }
+
+    @Override
+    public void setupAutopilotModule() {
+    }
+
+    @Override
+    public void setupAirports() {
+        for (int i = 0; i < replay.getNbAirports(); i++)
+            addAirport(replay.getAirportPosition(i), replay.getAirportHeading(i));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void setupDrones() {
+        for (ScenarioReplay.Drone drone : replay.getDrones())
+            addDrone(drone.config, drone.position, drone.velocity, drone.heading);
+    }
+
+    @Override
+    public void setupWorld() {
+        this.ground = new Ground(50);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Replay of a recorded scenario";
+    }
+
+    @Override
+    public void init(Window window, Engine engine) {
+        super.init(window, engine);
+        getUpdateHelper().setReplay(replay);
+    }
+
+    @Override
+    public void initHeadless() {
+        super.initHeadless();
+        getUpdateHelper().setReplay(replay);
+    }
+
+    /**
+     * The interval is ignored, the recorded one is used.
+     * The world is finished right after the last recorded step.
+     */
+    @Override
+    public void update(float interval, MouseInput mouseInput) {
+        float recorded = replay.readTick();
+        if (recorded >= 0)
+            super.update(recorded, mouseInput);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return replay.hasEnded() || super.isFinished();
+    }
+
+    @Override
+    public void endSimulation() {
+        super.endSimulation();
+        replay.close();
+
+        if (replay.getMissedOutputs() > 0)
+            System.out.println("The replay differs from the recording: " + replay.getMissedOutputs()
+                    + " outputs for drones that had already crashed");
+    }
+}
@@ -0,0 +1,200 @@
+package testbed.world.scenario;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.joml.Vector3f;
+
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotConfigWriter;
+import interfaces.AutopilotOutputs;
+import interfaces.BulkAutopilotModule;
+import testbed.Integrators;
+import testbed.entities.airport.Airport;
+
+/**
+ * Writes everything a world needs to run the same way again to a gzipped binary file:
+ * the world setup, the drones, every time step, every package request and the autopilot outputs
+ * of every drone. A ReplayWorld runs the file again without the autopilot module.
+ * <p>
+ * The file is a sequence of records, each starting with one of the tags below.
+ * Recording stops at the first write error.
+ */
+public class ScenarioRecorder {
+
+    static final int MAGIC = 0x50435752; // PCWR
+    static final int VERSION = 2;
+
+    /**
+     * time slowdown multiplier, physics, max drones, airport width and length,
+     * integrator, ground sub-steps and quaternion orientation
+     */
+    static final byte WORLD = 'W';
+    /**
+     * x, y, z, heading
+     */
+    static final byte AIRPORT = 'A';
+    /**
+     * config, position, velocity, heading
+     */
+    static final byte DRONE = 'D';
+    /**
+     * interval of the world update, before the time slowdown multiplier
+     */
+    static final byte TICK = 'T';
+    /**
+     * the package details as given to the testbed
+     */
+    static final byte PACKAGE = 'P';
+    /**
+     * drone id and the outputs in the order of BulkAutopilotModule
+     */
+    static final byte OUTPUTS = 'O';
+    static final byte END = 'E';
+
+    private DataOutputStream out;
+
+    public ScenarioRecorder(Path file) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+
+    public void writeWorld(int timeSlowdown, boolean physics, int nbDrones, float airportWidth, float airportLength,
+                           Integrators.Kind integrator, int groundSubSteps, boolean quaternions,
+                           List<Airport> airports) {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(WORLD);
+            out.writeInt(timeSlowdown);
+            out.writeBoolean(physics);
+            out.writeInt(nbDrones);
+            out.writeFloat(airportWidth);
+            out.writeFloat(airportLength);
+            out.writeByte(integrator.ordinal());
+            out.writeInt(groundSubSteps);
+            out.writeBoolean(quaternions);
+
+            for (Airport airport : airports) {
+                out.writeByte(AIRPORT);
+                writeVector(airport.getPosition());
+                out.writeFloat(airport.getHeading());
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void writeDrone(AutopilotConfig config, Vector3f position, Vector3f velocity, float heading) {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(DRONE);
+            AutopilotConfigWriter.write(out, config);
+            writeVector(position);
+            writeVector(velocity);
+            out.writeFloat(heading);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void writeTick(float interval) {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(TICK);
+            out.writeFloat(interval);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void writePackage(int[] details) {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(PACKAGE);
+            out.writeByte(details.length);
+            for (int detail : details)
+                out.writeInt(detail);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void writeOutputs(int drone, AutopilotOutputs outputs) {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(OUTPUTS);
+            out.writeShort(drone);
+            out.writeFloat(outputs.getThrust());
+            out.writeFloat(outputs.getLeftWingInclination());
+            out.writeFloat(outputs.getRightWingInclination());
+            out.writeFloat(outputs.getHorStabInclination());
+            out.writeFloat(outputs.getVerStabInclination());
+            out.writeFloat(outputs.getFrontBrakeForce());
+            out.writeFloat(outputs.getLeftBrakeForce());
+            out.writeFloat(outputs.getRightBrakeForce());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void writeOutputs(int drone, float[] outputs, int offset) {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(OUTPUTS);
+            out.writeShort(drone);
+            for (int i = 0; i < BulkAutopilotModule.OUTPUT_SIZE; i++)
+                out.writeFloat(outputs[offset + i]);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public void close() {
+        if (out == null)
+            return;
+
+        try {
+            out.writeByte(END);
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        out = null;
+    }
+
+
+    private void writeVector(Vector3f vector) throws IOException {
+        out.writeFloat(vector.x);
+        out.writeFloat(vector.y);
+        out.writeFloat(vector.z);
+    }
+
+    private void fail(IOException e) {
+        System.out.println("Recording stopped: " + e.getMessage());
+        e.printStackTrace();
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        }
+        out = null;
+    }
+}
@@ -0,0 +1,270 @@
+package testbed.world.scenario;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.joml.Vector3f;
+
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotConfigReader;
+import interfaces.BulkAutopilotModule;
+import testbed.Integrators;
+
+/**
+ * Reads a file written by a ScenarioRecorder. The setup is read when the file is opened,
+ * the time steps are read one by one while the world is updated, in the same order they were written.
+ */
+public class ScenarioReplay {
+
+    private final DataInputStream in;
+
+    private int timeSlowdown;
+    private boolean physics;
+    private int nbDrones;
+    private float airportWidth, airportLength;
+
+    private Integrators.Kind integrator;
+    private int groundSubSteps;
+    private boolean quaternions;
+
+    private final List<Vector3f> airportPositions = new ArrayList<>();
+    private final List<Float> airportHeadings = new ArrayList<>();
+    private final List<Drone> drones = new ArrayList<>();
+
+    /**
+     * The tag of the next record, END at the end of the file
+     */
+    private byte next;
+    private long ticks;
+
+    /**
+     * Outputs recorded for drones that have crashed in the replay, the replay diverged if this is not 0
+     */
+    private int missedOutputs;
+
+    public ScenarioReplay(Path file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))));
+
+        if (in.readInt() != ScenarioRecorder.MAGIC)
+            throw new IOException(file + " is not a recorded scenario");
+        int version = in.readInt();
+        if (version != ScenarioRecorder.VERSION)
+            throw new IOException("Unsupported scenario version " + version);
+
+        advance();
+        if (next != ScenarioRecorder.WORLD)
+            throw new IOException("The scenario does not start with a world");
+        timeSlowdown = in.readInt();
+        physics = in.readBoolean();
+        nbDrones = in.readInt();
+        airportWidth = in.readFloat();
+        airportLength = in.readFloat();
+        int kind = in.readUnsignedByte();
+        if (kind >= Integrators.Kind.values().length)
+            throw new IOException("Unknown integrator " + kind);
+        integrator = Integrators.Kind.values()[kind];
+        groundSubSteps = in.readInt();
+        quaternions = in.readBoolean();
+
+        advance();
+        while (next == ScenarioRecorder.AIRPORT) {
+            airportPositions.add(readVector());
+            airportHeadings.add(in.readFloat());
+            advance();
+        }
+
+        while (next == ScenarioRecorder.DRONE) {
+            drones.add(new Drone(AutopilotConfigReader.read(in), readVector(), readVector(), in.readFloat()));
+            advance();
+        }
+    }
+
+
+    /**
+     * Starts the next time step.
+     *
+     * @return the interval of the step, or a negative number at the end of the recording
+     */
+    public float readTick() {
+        try {
+            // records of the last step that were not asked for are skipped
+            while (next == ScenarioRecorder.PACKAGE || next == ScenarioRecorder.OUTPUTS) {
+                if (next == ScenarioRecorder.PACKAGE)
+                    readPackage();
+                else
+                    readOutputs(new float[BulkAutopilotModule.OUTPUT_SIZE]);
+            }
+
+            if (next != ScenarioRecorder.TICK)
+                return -1;
+
+            float interval = in.readFloat();
+            ticks++;
+            advance();
+            return interval;
+        } catch (IOException e) {
+            return end(e);
+        }
+    }
+
+    /**
+     * @return the details of the next package request in this time step, null if there are no more
+     */
+    public int[] readPackage() {
+        if (next != ScenarioRecorder.PACKAGE)
+            return null;
+
+        try {
+            int[] details = new int[in.readUnsignedByte()];
+            for (int i = 0; i < details.length; i++)
+                details[i] = in.readInt();
+            advance();
+            return details;
+        } catch (IOException e) {
+            end(e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the outputs of the next drone in this time step.
+     *
+     * @param outputs receives the outputs in the order of BulkAutopilotModule
+     * @return the id of the drone, -1 if there are no more outputs in this step
+     */
+    public int readOutputs(float[] outputs) {
+        if (next != ScenarioRecorder.OUTPUTS)
+            return -1;
+
+        try {
+            int drone = in.readUnsignedShort();
+            for (int i = 0; i < BulkAutopilotModule.OUTPUT_SIZE; i++)
+                outputs[i] = in.readFloat();
+            advance();
+            return drone;
+        } catch (IOException e) {
+            end(e);
+            return -1;
+        }
+    }
+
+    public void missedOutputs() {
+        missedOutputs++;
+    }
+
+    public int getMissedOutputs() {
+        return missedOutputs;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public boolean hasEnded() {
+        return next == ScenarioRecorder.END;
+    }
+
+    public void close() {
+        next = ScenarioRecorder.END;
+        try {
+            in.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+    public int getTimeSlowdown() {
+        return timeSlowdown;
+    }
+
+    public boolean hasPhysics() {
+        return physics;
+    }
+
+    public Integrators.Kind getIntegrator() {
+        return integrator;
+    }
+
+    public int getGroundSubSteps() {
+        return groundSubSteps;
+    }
+
+    public boolean usesQuaternions() {
+        return quaternions;
+    }
+
+    public int getNbDrones() {
+        return nbDrones;
+    }
+
+    public float getAirportWidth() {
+        return airportWidth;
+    }
+
+    public float getAirportLength() {
+        return airportLength;
+    }
+
+    public int getNbAirports() {
+        return airportPositions.size();
+    }
+
+    public Vector3f getAirportPosition(int airport) {
+        return new Vector3f(airportPositions.get(airport));
+    }
+
+    public float getAirportHeading(int airport) {
+        return airportHeadings.get(airport);
+    }
+
+    public List<Drone> getDrones() {
+        return drones;
+    }
+
+
+    private void advance() throws IOException {
+        try {
+            next = in.readByte();
+        } catch (EOFException e) {
+            // a recording that was not closed, e.g. after a crash of the testbed
+            next = ScenarioRecorder.END;
+        }
+    }
+
+    private Vector3f readVector() throws IOException {
+        return new Vector3f(in.readFloat(), in.readFloat(), in.readFloat());
+    }
+
+    private float end(IOException e) {
+        if (!(e instanceof EOFException))
+            e.printStackTrace();
+        next = ScenarioRecorder.END;
+        return -1;
+    }
+
+
+    /**
+     * A drone as it was added to the world
+     */
+    public static class Drone {
+
+        public final AutopilotConfig config;
+        public final Vector3f position, velocity;
+        public final float heading;
+
+        Drone(AutopilotConfig config, Vector3f position, Vector3f velocity, float heading) {
+            this.config = config;
+            this.position = position;
+            this.velocity = velocity;
+            this.heading = heading;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * 2D index of oriented airport rectangles on the ground (x, z), used by the testbed physics and the autopilot
+ * to find the airport under a position without testing every airport.
+ * <p>
+ * A rectangle is given by its center, its heading and its half extents along the runway direction
+ * (-sin(heading), -cos(heading)) and across it. The rectangles are put in a uniform grid of cells at least as
+ * large as the largest rectangle, the grid is built by build or on the first lookup after adding airports.
+ * Lookups do not allocate.
+ */
+public class AirportIndex {
+
+    private int size;
+    private float[] centerX = new float[8], centerZ = new float[8];
+    private float[] dirX = new float[8], dirZ = new float[8];
+    private float[] halfLength = new float[8], halfWidth = new float[8];
+
+    private boolean dirty = false;
+    private float cellSize;
+
+    /**
+     * Sorted keys of the non-empty cells, the airports of cell i are entries[cellStart[i]..cellStart[i + 1]),
+     * in the order they were added
+     */
+    private long[] cellKeys = new long[0];
+    private int[] cellStart = new int[1];
+    private int[] entries = new int[0];
+
+    /**
+     * Adds a rectangle and returns its id, airports get ids in the order they are added.
+     */
+    public int add(float x, float z, float heading, float halfLength, float halfWidth) {
+        if (size == centerX.length) {
+            centerX = Arrays.copyOf(centerX, 2 * size);
+            centerZ = Arrays.copyOf(centerZ, 2 * size);
+            dirX = Arrays.copyOf(dirX, 2 * size);
+            dirZ = Arrays.copyOf(dirZ, 2 * size);
+            this.halfLength = Arrays.copyOf(this.halfLength, 2 * size);
+            this.halfWidth = Arrays.copyOf(this.halfWidth, 2 * size);
+        }
+
+        centerX[size] = x;
+        centerZ[size] = z;
+        dirX[size] = -FloatMath.sin(heading);
+        dirZ[size] = -FloatMath.cos(heading);
+        this.halfLength[size] = halfLength;
+        this.halfWidth[size] = halfWidth;
+
+        dirty = true;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether the position lies in the rectangle of the airport.
+     */
+    public boolean contains(int id, float x, float z) {
+        return contains(id, x, z, halfLength[id], halfWidth[id]);
+    }
+
+    /**
+     * Whether the position lies in a rectangle with the center and heading of the airport
+     * and the given half extents.
+     */
+    public boolean contains(int id, float x, float z, float halfLength, float halfWidth) {
+        float dx = x - centerX[id], dz = z - centerZ[id];
+        // the direction perpendicular to the runway is (-cos(heading), sin(heading))
+        return Math.abs(dx * dirX[id] + dz * dirZ[id]) <= halfLength
+                && Math.abs(dx * dirZ[id] - dz * dirX[id]) <= halfWidth;
+    }
+
+    /**
+     * The first airport whose rectangle contains the position, -1 if there is none.
+     */
+    public int find(float x, float z) {
+        int cell = findCell(x, z);
+        if (cell < 0)
+            return -1;
+
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++)
+            if (contains(entries[i], x, z))
+                return entries[i];
+        return -1;
+    }
+
+    /**
+     * The first airport for which a rectangle with the given half extents contains the position, -1 if there is none.
+     * The extents can not be larger than the ones the airports were added with.
+     */
+    public int find(float x, float z, float halfLength, float halfWidth) {
+        int cell = findCell(x, z);
+        if (cell < 0)
+            return -1;
+
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++)
+            if (contains(entries[i], x, z, halfLength, halfWidth))
+                return entries[i];
+        return -1;
+    }
+
+    private int findCell(float x, float z) {
+        if (dirty)
+            build();
+        if (size == 0)
+            return -1;
+
+        int cell = Arrays.binarySearch(cellKeys, key(cell(x), cell(z)));
+        return cell < 0 ? -1 : cell;
+    }
+
+    /**
+     * Builds the grid now instead of on the next lookup. Lookups from several threads at once
+     * are only safe after the grid is built.
+     */
+    public void build() {
+        // bounding boxes, a little larger so rounding never leaves out an airport
+        float[] extentX = new float[size], extentZ = new float[size];
+        cellSize = 1;
+        for (int i = 0; i < size; i++) {
+            float dx = Math.abs(dirX[i]), dz = Math.abs(dirZ[i]);
+            extentX[i] = (dx * halfLength[i] + dz * halfWidth[i]) * 1.01f + 1;
+            extentZ[i] = (dz * halfLength[i] + dx * halfWidth[i]) * 1.01f + 1;
+            cellSize = Math.max(cellSize, 2 * Math.max(extentX[i], extentZ[i]));
+        }
+
+        // every airport is in at most 2 x 2 cells
+        long[] keys = new long[4 * size];
+        int[] ids = new int[4 * size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            for (int cx = cell(centerX[i] - extentX[i]); cx <= cell(centerX[i] + extentX[i]); cx++)
+                for (int cz = cell(centerZ[i] - extentZ[i]); cz <= cell(centerZ[i] + extentZ[i]); cz++) {
+                    keys[count] = key(cx, cz);
+                    ids[count++] = i;
+                }
+        }
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> keys[a] != keys[b] ? Long.compare(keys[a], keys[b]) : Integer.compare(ids[a], ids[b]));
+
+        cellKeys = new long[count];
+        cellStart = new int[count + 1];
+        entries = new int[count];
+        int nbCells = 0;
+        for (int i = 0; i < count; i++) {
+            long key = keys[order[i]];
+            if (nbCells == 0 || cellKeys[nbCells - 1] != key) {
+                cellKeys[nbCells] = key;
+                cellStart[nbCells++] = i;
+            }
+            entries[i] = ids[order[i]];
+        }
+        cellKeys = Arrays.copyOf(cellKeys, nbCells);
+        cellStart[nbCells] = count;
+
+        dirty = false;
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
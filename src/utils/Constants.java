@@ -18,6 +18,11 @@ public class Constants {
      */
     public static float climbAngle = FloatMath.toRadians(10);
 
+    /**
+     * Calculate the outputs of the drones of an AirportManager on the common ForkJoinPool
+     */
+    public static final boolean PARALLEL_AUTOPILOT = false;
+
     /**
      * GUI
      */
@@ -26,6 +31,11 @@ public class Constants {
 
     public static final float COLLISION_RANGE = 5f;
 
+    /**
+     * Physics steps per update while the wheels of a drone touch the ground, 1 to never sub-step
+     */
+    public static final int GROUND_SUB_STEPS = 1;
+
     /**
      * Renderer constants
      */
@@ -48,6 +58,7 @@ public class Constants {
     public static final int TARGET_FPS = 75;
     public static final int TARGET_UPS = 100;
     public static final float SPEED = 10f;
+    public static final boolean SIMULATION_THREAD = true;
 
     /**
      * Camera constants
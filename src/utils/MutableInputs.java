@@ -0,0 +1,95 @@
+package utils;
+
+import interfaces.AutopilotInputs;
+import interfaces.BulkAutopilotModule;
+
+/**
+ * Inputs that are overwritten in place, so the testbed can reuse one instance per drone.
+ * <p>
+ * The instance belongs to whoever creates it. Whoever receives it may only rely on the
+ * values until the next set, i.e. until the next time step of the same drone.
+ * Values that are needed longer have to be copied.
+ */
+public class MutableInputs implements AutopilotInputs {
+
+    /**
+     * Values per drone in a state array, the same layout as BulkAutopilotModule
+     */
+    public static final int SIZE = BulkAutopilotModule.STATE_SIZE;
+
+    private byte[] image;
+    private float x, y, z, heading, pitch, roll, elapsedTime;
+
+    public MutableInputs set(byte[] image, float x, float y, float z, float heading, float pitch, float roll,
+                             float elapsedTime) {
+        this.image = image;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.heading = heading;
+        this.pitch = pitch;
+        this.roll = roll;
+        this.elapsedTime = elapsedTime;
+        return this;
+    }
+
+    /**
+     * Sets x, y, z, heading, pitch and roll from the array, the image is cleared.
+     */
+    public MutableInputs set(float[] values, int offset, float elapsedTime) {
+        return set(null, values[offset], values[offset + 1], values[offset + 2], values[offset + 3],
+                values[offset + 4], values[offset + 5], elapsedTime);
+    }
+
+    public MutableInputs setPosition(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public MutableInputs setElapsedTime(float elapsedTime) {
+        this.elapsedTime = elapsedTime;
+        return this;
+    }
+
+    @Override
+    public byte[] getImage() {
+        return image;
+    }
+
+    @Override
+    public float getX() {
+        return x;
+    }
+
+    @Override
+    public float getY() {
+        return y;
+    }
+
+    @Override
+    public float getZ() {
+        return z;
+    }
+
+    @Override
+    public float getHeading() {
+        return heading;
+    }
+
+    @Override
+    public float getPitch() {
+        return pitch;
+    }
+
+    @Override
+    public float getRoll() {
+        return roll;
+    }
+
+    @Override
+    public float getElapsedTime() {
+        return elapsedTime;
+    }
+}
@@ -0,0 +1,70 @@
+package utils;
+
+import interfaces.AutopilotOutputs;
+
+/**
+ * Outputs that are overwritten in place, so a pilot can return the same instance every time step.
+ * <p>
+ * The instance belongs to the pilot that returns it. The caller may only rely on the values
+ * until the next time step of that pilot. Values that are needed longer have to be copied.
+ */
+public class MutableOutputs implements AutopilotOutputs {
+
+    private float thrust, lwIncl, rwIncl, horStabIncl, verStabIncl, fBrake, lBrake, rBrake;
+
+    /**
+     * Same order of arguments as Utils.buildOutputs
+     */
+    public MutableOutputs set(float lwIncl, float rwIncl, float verStabIncl, float horStabIncl,
+                              float thrust, float lBrake, float fBrake, float rBrake) {
+        this.lwIncl = lwIncl;
+        this.rwIncl = rwIncl;
+        this.verStabIncl = verStabIncl;
+        this.horStabIncl = horStabIncl;
+        this.thrust = thrust;
+        this.lBrake = lBrake;
+        this.fBrake = fBrake;
+        this.rBrake = rBrake;
+        return this;
+    }
+
+    @Override
+    public float getThrust() {
+        return thrust;
+    }
+
+    @Override
+    public float getLeftWingInclination() {
+        return lwIncl;
+    }
+
+    @Override
+    public float getRightWingInclination() {
+        return rwIncl;
+    }
+
+    @Override
+    public float getHorStabInclination() {
+        return horStabIncl;
+    }
+
+    @Override
+    public float getVerStabInclination() {
+        return verStabIncl;
+    }
+
+    @Override
+    public float getFrontBrakeForce() {
+        return fBrake;
+    }
+
+    @Override
+    public float getLeftBrakeForce() {
+        return lBrake;
+    }
+
+    @Override
+    public float getRightBrakeForce() {
+        return rBrake;
+    }
+}
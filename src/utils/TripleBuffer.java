@@ -0,0 +1,62 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free hand-over of the latest state from one writer thread to one reader thread.
+ * <p>
+ * The writer fills the back buffer and publishes it, the reader takes the latest published buffer.
+ * Neither of them ever waits for the other: a buffer that was published but not read yet
+ * is given back to the writer and overwritten. Between two calls the writer owns its back buffer
+ * and the reader owns its front buffer, so both can use them without locking.
+ */
+public class TripleBuffer<T> {
+
+    private static final int DIRTY = 4, INDEX = 3;
+
+    private final Object[] buffers;
+
+    /**
+     * Index of the middle buffer, with the DIRTY bit set if it was published and not read yet
+     */
+    private final AtomicInteger middle;
+
+    private int back, front;
+
+    public TripleBuffer(Supplier<T> factory) {
+        this.buffers = new Object[]{factory.get(), factory.get(), factory.get()};
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * The buffer to fill, only to be used by the writer.
+     */
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+
+    /**
+     * Publishes the back buffer and takes a new one.
+     *
+     * @return true if the new back buffer was published before but never read
+     */
+    public boolean publish() {
+        int old = middle.getAndSet(back | DIRTY);
+        back = old & INDEX;
+        return (old & DIRTY) != 0;
+    }
+
+    /**
+     * The latest published buffer, only to be used by the reader. It is not changed until the next call.
+     */
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        if ((middle.get() & DIRTY) != 0)
+            front = middle.getAndSet(front) & INDEX;
+        return (T) buffers[front];
+    }
+}
@@ -1,6 +1,8 @@
 package utils;
 
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -12,6 +14,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Scanner;
 
+import javax.swing.JOptionPane;
+
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
 
@@ -242,6 +246,16 @@ public class Utils {
         };
     }
 
+    /**
+     * Shows an error dialog, or prints the error when running headless.
+     */
+    public static void showError(Component parent, String message, String title) {
+        if (GraphicsEnvironment.isHeadless())
+            System.out.println(title + ": " + message);
+        else
+            JOptionPane.showMessageDialog(parent, message, title, JOptionPane.ERROR_MESSAGE);
+    }
+
     public static boolean euclDistance(Vector3f start, Vector3f end, float distance) {
         return Math.abs(start.distance(end)) >= distance;
     }
@@ -0,0 +1,204 @@
+package wire;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import interfaces.AutopilotModule;
+import interfaces.BulkAutopilotModule;
+import utils.MutableInputs;
+
+/**
+ * Server side of the wire protocol: executes the calls of a RemoteAutopilotModule on a local module.
+ * <p>
+ * Usage: AutopilotModuleServer [port | -shm file] [module class],
+ * e.g. AutopilotModuleServer 4242 autopilot.airports.AirportManager or AutopilotModuleServer -shm /dev/shm/autopilot
+ * <br>
+ * Every connection gets its own thread and its own instance of the module. Besides the methods of AutopilotModule
+ * the server knows the TIME_HAS_PASSED extension of BatchedRemoteAutopilotModule.
+ */
+public class AutopilotModuleServer implements Runnable {
+
+    public static final int DEFAULT_PORT = 4242;
+
+    private final AutopilotModule module;
+    private final Transport transport;
+
+    /**
+     * Inputs per drone, overwritten every tick
+     */
+    private MutableInputs[] inputs = new MutableInputs[0];
+
+    /**
+     * Frames of TIME_HAS_PASSED, they grow with the number of drones
+     */
+    private int[] drones = new int[0];
+    private float[] states = new float[0], outputs = new float[0];
+
+    public AutopilotModuleServer(AutopilotModule module, Transport transport) {
+        this.module = module;
+        this.transport = transport;
+    }
+
+
+    /**
+     * Executes calls until the client ends the simulation or closes the connection.
+     */
+    public void serve() throws IOException {
+        try {
+            while (call()) {
+            }
+        } catch (EOFException e) {
+            // the client closed the connection between two calls
+        } finally {
+            transport.close();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            serve();
+        } catch (IOException e) {
+            System.err.println("Connection with the testbed failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return False if the simulation ended
+     */
+    private boolean call() throws IOException {
+        byte method = transport.input(1).get();
+        ByteBuffer in;
+
+        switch (method) {
+            case Wire.DEFINE_AIRPORT_PARAMS:
+                in = transport.input(2 * 4);
+                module.defineAirportParams(in.getFloat(), in.getFloat());
+                return true;
+
+            case Wire.DEFINE_AIRPORT:
+                in = transport.input(4 * 4);
+                module.defineAirport(in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat());
+                return true;
+
+            case Wire.DEFINE_DRONE:
+                in = transport.input(3 * 4);
+                int airport = in.getInt(), gate = in.getInt(), pointingToRunway = in.getInt();
+                module.defineDrone(airport, gate, pointingToRunway, Wire.readConfig(transport));
+
+                inputs = Arrays.copyOf(inputs, inputs.length + 1);
+                inputs[inputs.length - 1] = new MutableInputs();
+                return true;
+
+            case Wire.START_TIME_HAS_PASSED:
+                int drone = transport.input(4).getInt();
+                module.startTimeHasPassed(drone, Wire.readInputs(transport, inputs[drone]));
+                return true;
+
+            case Wire.COMPLETE_TIME_HAS_PASSED:
+                Wire.writeOutputs(transport, module.completeTimeHasPassed(transport.input(4).getInt()));
+                transport.flush();
+                return true;
+
+            case Wire.DELIVER_PACKAGE:
+                in = transport.input(4 * 4);
+                module.deliverPackage(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+                return true;
+
+            case Wire.TIME_HAS_PASSED:
+                timeHasPassed(transport.input(4).getInt());
+                transport.flush();
+                return true;
+
+            case Wire.MODULE_ENDED:
+                module.simulationEnded();
+                return false;
+
+            default:
+                throw new IOException("Unknown method " + method);
+        }
+    }
+
+
+    /**
+     * Reads the frame of all drones, answers with the outputs of all drones. Modules that are not
+     * a BulkAutopilotModule get the calls of the testbed for every drone.
+     */
+    private void timeHasPassed(int nbDrones) throws IOException {
+        if (drones.length < nbDrones) {
+            drones = new int[nbDrones];
+            states = new float[nbDrones * BulkAutopilotModule.STATE_SIZE];
+            outputs = new float[nbDrones * BulkAutopilotModule.OUTPUT_SIZE];
+        }
+
+        ByteBuffer in = transport.input(nbDrones * (4 + BulkAutopilotModule.STATE_SIZE * 4));
+        for (int i = 0; i < nbDrones; i++)
+            drones[i] = in.getInt();
+        for (int i = 0; i < nbDrones * BulkAutopilotModule.STATE_SIZE; i++)
+            states[i] = in.getFloat();
+
+        if (module instanceof BulkAutopilotModule) {
+            ((BulkAutopilotModule) module).timeHasPassed(drones, nbDrones, states, outputs);
+
+            ByteBuffer out = transport.output(nbDrones * Wire.OUTPUTS_SIZE);
+            for (int i = 0; i < nbDrones * BulkAutopilotModule.OUTPUT_SIZE; i++)
+                out.putFloat(outputs[i]);
+            return;
+        }
+
+        for (int i = 0; i < nbDrones; i++) {
+            int offset = i * BulkAutopilotModule.STATE_SIZE;
+            module.startTimeHasPassed(drones[i], inputs[drones[i]].set(states, offset, states[offset + 6]));
+        }
+
+        for (int i = 0; i < nbDrones; i++)
+            Wire.writeOutputs(transport, module.completeTimeHasPassed(drones[i]));
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 1 && args[0].equals("-shm")) {
+            serveSharedMemory(Paths.get(args[1]), moduleClass(args, 2));
+            return;
+        }
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Class<?> moduleClass = moduleClass(args, 1);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            System.out.println("Waiting for testbeds on port " + port);
+
+            while (true) {
+                SocketChannel channel = server.accept();
+                AutopilotModule module = (AutopilotModule) moduleClass.getDeclaredConstructor().newInstance();
+                new Thread(new AutopilotModuleServer(module, new SocketTransport(channel)),
+                        "autopilot-" + channel.getRemoteAddress()).start();
+            }
+        }
+    }
+
+    /**
+     * Serves one testbed at a time, the file is created again for every testbed.
+     */
+    private static void serveSharedMemory(Path file, Class<?> moduleClass) throws Exception {
+        System.out.println("Waiting for testbeds on " + file);
+
+        while (true) {
+            AutopilotModule module = (AutopilotModule) moduleClass.getDeclaredConstructor().newInstance();
+            new AutopilotModuleServer(module, SharedMemoryTransport.create(file,
+                    SharedMemoryTransport.DEFAULT_CAPACITY)).run();
+        }
+    }
+
+    private static Class<?> moduleClass(String[] args, int index) throws ClassNotFoundException {
+        return Class.forName(args.length > index ? args[index] : "autopilot.airports.AirportManager");
+    }
+}
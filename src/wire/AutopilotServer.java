@@ -0,0 +1,105 @@
+package wire;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import interfaces.Autopilot;
+import interfaces.AutopilotInputsView;
+
+/**
+ * Server side of the wire protocol: executes the calls of a RemoteAutopilot on a local autopilot.
+ * <p>
+ * Usage: AutopilotServer [port] [autopilot class], e.g. AutopilotServer 4243 autopilot.LogPilot
+ * <br>
+ * Every connection gets its own thread and its own instance of the autopilot.
+ */
+public class AutopilotServer implements Runnable {
+
+    public static final int DEFAULT_PORT = 4243;
+
+    private final Autopilot autopilot;
+    private final Transport transport;
+
+    /**
+     * Views the inputs of every call in the buffer of the transport, the autopilot only
+     * decodes the image if it asks for it
+     */
+    private final AutopilotInputsView inputs = new AutopilotInputsView();
+
+    public AutopilotServer(Autopilot autopilot, Transport transport) {
+        this.autopilot = autopilot;
+        this.transport = transport;
+    }
+
+
+    /**
+     * Executes calls until the client ends the simulation or closes the connection.
+     */
+    public void serve() throws IOException {
+        try {
+            while (call()) {
+            }
+        } catch (EOFException e) {
+            // the client closed the connection between two calls
+        } finally {
+            transport.close();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            serve();
+        } catch (IOException e) {
+            System.err.println("Connection with the testbed failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return False if the simulation ended
+     */
+    private boolean call() throws IOException {
+        byte method = transport.input(1).get();
+
+        switch (method) {
+            case Wire.SIMULATION_STARTED:
+                Wire.writeOutputs(transport, autopilot.simulationStarted(Wire.readConfig(transport),
+                        Wire.viewInputs(transport, inputs)));
+                transport.flush();
+                return true;
+
+            case Wire.TIME_PASSED:
+                Wire.writeOutputs(transport, autopilot.timePassed(Wire.viewInputs(transport, inputs)));
+                transport.flush();
+                return true;
+
+            case Wire.AUTOPILOT_ENDED:
+                autopilot.simulationEnded();
+                return false;
+
+            default:
+                throw new IOException("Unknown method " + method);
+        }
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Class<?> autopilotClass = Class.forName(args.length > 1 ? args[1] : "autopilot.LogPilot");
+
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            System.out.println("Waiting for testbeds on port " + port);
+
+            while (true) {
+                SocketChannel channel = server.accept();
+                Autopilot autopilot = (Autopilot) autopilotClass.getDeclaredConstructor().newInstance();
+                new Thread(new AutopilotServer(autopilot, new SocketTransport(channel)),
+                        "autopilot-" + channel.getRemoteAddress()).start();
+            }
+        }
+    }
+}
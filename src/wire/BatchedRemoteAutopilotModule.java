@@ -0,0 +1,113 @@
+package wire;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import interfaces.AutopilotConfig;
+import interfaces.BulkAutopilotModule;
+
+/**
+ * A RemoteAutopilotModule that sends the states of all drones in one frame and receives the outputs of
+ * all drones in one frame, so a tick costs one round trip instead of one per drone.
+ * The server has to know the TIME_HAS_PASSED extension of the wire protocol, AutopilotModuleServer does.
+ * <p>
+ * When pipelined, the frame of a tick is sent before the outputs of the previous tick are read, and those
+ * outputs are returned instead. The autopilot then calculates while the testbed simulates, but the drones
+ * fly with outputs that are one tick late and the results differ from those of a module in the same process.
+ */
+public class BatchedRemoteAutopilotModule extends RemoteAutopilotModule implements BulkAutopilotModule {
+
+    private final boolean pipelined;
+
+    /**
+     * Drones of the frame that was sent but not read yet, for a pipelined module
+     */
+    private int[] pendingDrones = new int[0];
+    private int nbPending = -1;
+
+    /**
+     * Last outputs per drone id, for a pipelined module
+     */
+    private float[] lastOutputs = new float[0];
+
+    public BatchedRemoteAutopilotModule(Transport transport, boolean pipelined) {
+        super(transport);
+        this.pipelined = pipelined;
+    }
+
+    public BatchedRemoteAutopilotModule(Transport transport) {
+        this(transport, false);
+    }
+
+
+    @Override
+    public void defineDrone(int airport, int gate, int pointingToRunway, AutopilotConfig config) {
+        super.defineDrone(airport, gate, pointingToRunway, config);
+
+        pendingDrones = Arrays.copyOf(pendingDrones, pendingDrones.length + 1);
+        lastOutputs = Arrays.copyOf(lastOutputs, lastOutputs.length + OUTPUT_SIZE);
+    }
+
+    @Override
+    public void timeHasPassed(int[] drones, int nbDrones, float[] states, float[] outputs) {
+        try {
+            ByteBuffer out = transport.output(1 + 4 + nbDrones * (4 + STATE_SIZE * 4));
+            out.put(Wire.TIME_HAS_PASSED);
+            out.putInt(nbDrones);
+            for (int i = 0; i < nbDrones; i++)
+                out.putInt(drones[i]);
+            for (int i = 0; i < nbDrones * STATE_SIZE; i++)
+                out.putFloat(states[i]);
+            transport.flush();
+
+            if (!pipelined) {
+                readOutputs(nbDrones, outputs);
+                return;
+            }
+
+            if (nbPending >= 0)
+                readPending();
+
+            System.arraycopy(drones, 0, pendingDrones, 0, nbDrones);
+            nbPending = nbDrones;
+
+            for (int i = 0; i < nbDrones; i++)
+                System.arraycopy(lastOutputs, drones[i] * OUTPUT_SIZE, outputs, i * OUTPUT_SIZE, OUTPUT_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readOutputs(int nbDrones, float[] outputs) throws IOException {
+        ByteBuffer in = transport.input(nbDrones * OUTPUT_SIZE * 4);
+        for (int i = 0; i < nbDrones * OUTPUT_SIZE; i++)
+            outputs[i] = in.getFloat();
+    }
+
+    /**
+     * Reads the outputs of the frame that was sent last into the last outputs per drone
+     */
+    private void readPending() throws IOException {
+        ByteBuffer in = transport.input(nbPending * OUTPUT_SIZE * 4);
+        for (int i = 0; i < nbPending; i++) {
+            int offset = pendingDrones[i] * OUTPUT_SIZE;
+            for (int j = 0; j < OUTPUT_SIZE; j++)
+                lastOutputs[offset + j] = in.getFloat();
+        }
+        nbPending = -1;
+    }
+
+    @Override
+    public void simulationEnded() {
+        try {
+            if (nbPending >= 0)
+                readPending();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        super.simulationEnded();
+    }
+}
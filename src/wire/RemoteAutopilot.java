@@ -0,0 +1,70 @@
+package wire;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import interfaces.Autopilot;
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotInputs;
+import interfaces.AutopilotOutputs;
+import interfaces.AutopilotOutputsView;
+
+/**
+ * Client side of the wire protocol: an Autopilot that calls the autopilot of an AutopilotServer.
+ * Errors of the transport are thrown as UncheckedIOException.
+ */
+public class RemoteAutopilot implements Autopilot {
+
+    private final Transport transport;
+
+    /**
+     * Views the outputs of every call in the buffer of the transport
+     */
+    private final AutopilotOutputsView outputs = new AutopilotOutputsView();
+
+    public RemoteAutopilot(Transport transport) {
+        this.transport = transport;
+    }
+
+
+    @Override
+    public AutopilotOutputs simulationStarted(AutopilotConfig config, AutopilotInputs inputs) {
+        try {
+            transport.output(1).put(Wire.SIMULATION_STARTED);
+            Wire.writeConfig(transport, config);
+            Wire.writeInputs(transport, inputs);
+            transport.flush();
+
+            return Wire.viewOutputs(transport, outputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public AutopilotOutputs timePassed(AutopilotInputs inputs) {
+        try {
+            transport.output(1).put(Wire.TIME_PASSED);
+            Wire.writeInputs(transport, inputs);
+            transport.flush();
+
+            return Wire.viewOutputs(transport, outputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Also closes the connection, the autopilot can not be used afterwards
+     */
+    @Override
+    public void simulationEnded() {
+        try {
+            transport.output(1).put(Wire.AUTOPILOT_ENDED);
+            transport.flush();
+            transport.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
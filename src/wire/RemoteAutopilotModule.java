@@ -0,0 +1,130 @@
+package wire;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotInputs;
+import interfaces.AutopilotModule;
+import interfaces.AutopilotOutputs;
+import utils.MutableOutputs;
+
+/**
+ * Client side of the wire protocol: an AutopilotModule that calls the module of an AutopilotModuleServer.
+ * <p>
+ * Calls without a return value are only sent with the next call that has one, so a tick costs
+ * one round trip per drone instead of two. Errors of the transport are thrown as UncheckedIOException.
+ */
+public class RemoteAutopilotModule implements AutopilotModule {
+
+    protected final Transport transport;
+
+    /**
+     * Outputs per drone, overwritten every tick
+     */
+    private MutableOutputs[] outputs = new MutableOutputs[0];
+
+    public RemoteAutopilotModule(Transport transport) {
+        this.transport = transport;
+    }
+
+
+    @Override
+    public void defineAirportParams(float length, float width) {
+        try {
+            ByteBuffer out = transport.output(1 + 2 * 4);
+            out.put(Wire.DEFINE_AIRPORT_PARAMS);
+            out.putFloat(length);
+            out.putFloat(width);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void defineAirport(float centerX, float centerZ, float centerToRunway0X, float centerToRunway0Z) {
+        try {
+            ByteBuffer out = transport.output(1 + 4 * 4);
+            out.put(Wire.DEFINE_AIRPORT);
+            out.putFloat(centerX);
+            out.putFloat(centerZ);
+            out.putFloat(centerToRunway0X);
+            out.putFloat(centerToRunway0Z);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void defineDrone(int airport, int gate, int pointingToRunway, AutopilotConfig config) {
+        try {
+            ByteBuffer out = transport.output(1 + 3 * 4);
+            out.put(Wire.DEFINE_DRONE);
+            out.putInt(airport);
+            out.putInt(gate);
+            out.putInt(pointingToRunway);
+            Wire.writeConfig(transport, config);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        outputs = Arrays.copyOf(outputs, outputs.length + 1);
+        outputs[outputs.length - 1] = new MutableOutputs();
+    }
+
+    @Override
+    public void startTimeHasPassed(int drone, AutopilotInputs inputs) {
+        try {
+            ByteBuffer out = transport.output(1 + 4);
+            out.put(Wire.START_TIME_HAS_PASSED);
+            out.putInt(drone);
+            Wire.writeInputs(transport, inputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public AutopilotOutputs completeTimeHasPassed(int drone) {
+        try {
+            ByteBuffer out = transport.output(1 + 4);
+            out.put(Wire.COMPLETE_TIME_HAS_PASSED);
+            out.putInt(drone);
+            transport.flush();
+
+            return Wire.readOutputs(transport, outputs[drone]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void deliverPackage(int fromAirport, int fromGate, int toAirport, int toGate) {
+        try {
+            ByteBuffer out = transport.output(1 + 4 * 4);
+            out.put(Wire.DELIVER_PACKAGE);
+            out.putInt(fromAirport);
+            out.putInt(fromGate);
+            out.putInt(toAirport);
+            out.putInt(toGate);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Also closes the connection, the module can not be used afterwards
+     */
+    @Override
+    public void simulationEnded() {
+        try {
+            transport.output(1).put(Wire.MODULE_ENDED);
+            transport.flush();
+            transport.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
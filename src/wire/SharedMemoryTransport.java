@@ -0,0 +1,273 @@
+package wire;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transport between two processes on the same machine over a memory mapped file, preferably in /dev/shm.
+ * The file holds a ring buffer for each direction, so sending and receiving do not need system calls.
+ * <p>
+ * Every ring has a write and a read sequence, the total number of bytes written and read. The writer copies
+ * the bytes into the ring and then publishes its sequence, the reader waits until the sequence has moved.
+ * Waiting spins first, then yields and then parks for short periods, since the other process can not be woken.
+ * <p>
+ * The server creates the file, the client opens it. Messages larger than a ring are sent in parts.
+ * <p>
+ * Needs Java 9 or later for the VarHandles and Thread.onSpinWait.
+ */
+public class SharedMemoryTransport implements Transport {
+
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    private static final int MAGIC = 0x53484d54;
+
+    /**
+     * Magic and capacity
+     */
+    private static final int FILE_HEADER = 64;
+
+    /**
+     * Write sequence, read sequence and closed flag of a ring, each on its own cache line
+     */
+    private static final int RING_HEADER = 3 * 64;
+    private static final int WRITE = 0, READ = 64, CLOSED = 128;
+
+    /**
+     * Spinning only helps when the other side runs on another processor
+     */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+    private static final int YIELDS = 1000;
+    private static final long PARK_NANOS = 20_000;
+
+    private static final int INITIAL_SIZE = 1 << 12;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path file;
+    private final boolean server;
+
+    private final MappedByteBuffer map;
+    private final int capacity;
+
+    /**
+     * Offsets of the headers of the ring this side writes to and the ring it reads from
+     */
+    private final int outRing, inRing;
+
+    /**
+     * The data of both rings, positioned while copying
+     */
+    private final ByteBuffer outData, inData;
+
+    /**
+     * Own sequences, the other side only reads them
+     */
+    private long written, read;
+
+    /**
+     * Messages before they are copied into the ring, and bytes after they are copied out of it
+     */
+    private ByteBuffer in, out;
+
+    private SharedMemoryTransport(Path file, boolean server, MappedByteBuffer map, int capacity) {
+        this.file = file;
+        this.server = server;
+        this.map = map;
+        this.capacity = capacity;
+
+        // ring 0 goes from the client to the server
+        int ring0 = FILE_HEADER, ring1 = FILE_HEADER + RING_HEADER + capacity;
+        this.outRing = server ? ring1 : ring0;
+        this.inRing = server ? ring0 : ring1;
+
+        this.outData = slice(outRing + RING_HEADER);
+        this.inData = slice(inRing + RING_HEADER);
+
+        this.in = ByteBuffer.allocateDirect(INITIAL_SIZE);
+        this.in.flip();
+        this.out = ByteBuffer.allocateDirect(INITIAL_SIZE);
+    }
+
+    private ByteBuffer slice(int offset) {
+        ByteBuffer data = map.duplicate();
+        data.position(offset);
+        data.limit(offset + capacity);
+        return data.slice();
+    }
+
+
+    /**
+     * Creates the file for the server side, an existing file is overwritten.
+     *
+     * @param capacity The size of each ring in bytes
+     */
+    public static SharedMemoryTransport create(Path file, int capacity) throws IOException {
+        Files.deleteIfExists(file);
+
+        MappedByteBuffer map = map(file, FILE_HEADER + 2 * (RING_HEADER + capacity), StandardOpenOption.CREATE_NEW);
+        map.putInt(4, capacity);
+        INT.setRelease(map, 0, MAGIC);
+
+        return new SharedMemoryTransport(file, true, map, capacity);
+    }
+
+    /**
+     * Opens the file of a server for the client side.
+     */
+    public static SharedMemoryTransport open(Path file) throws IOException {
+        long size = Files.size(file);
+        MappedByteBuffer map = map(file, size);
+
+        if ((int) INT.getAcquire(map, 0) != MAGIC)
+            throw new IOException(file + " is not a shared memory transport");
+
+        return new SharedMemoryTransport(file, false, map, map.getInt(4));
+    }
+
+    private static MappedByteBuffer map(Path file, long size, StandardOpenOption... options) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, with(options, StandardOpenOption.READ,
+                StandardOpenOption.WRITE))) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static StandardOpenOption[] with(StandardOpenOption[] options, StandardOpenOption... more) {
+        StandardOpenOption[] all = new StandardOpenOption[options.length + more.length];
+        System.arraycopy(options, 0, all, 0, options.length);
+        System.arraycopy(more, 0, all, options.length, more.length);
+        return all;
+    }
+
+    /**
+     * A file in /dev/shm if it exists, otherwise in the temporary directory
+     */
+    public static Path defaultFile(String name) {
+        Path shm = Paths.get("/dev/shm");
+        return (Files.isDirectory(shm) ? shm : Paths.get(System.getProperty("java.io.tmpdir"))).resolve(name);
+    }
+
+
+    @Override
+    public ByteBuffer output(int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            flush();
+            if (out.capacity() < bytes)
+                out = ByteBuffer.allocateDirect(grow(out.capacity(), bytes));
+        }
+        return out;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flip();
+
+        int waits = 0;
+        while (out.hasRemaining()) {
+            long free = capacity - (written - (long) LONG.getAcquire(map, outRing + READ));
+            if (free == 0) {
+                if (isClosed(inRing))
+                    throw new EOFException("Connection closed");
+                backOff(waits++);
+                continue;
+            }
+            waits = 0;
+
+            int index = (int) (written % capacity);
+            int chunk = (int) Math.min(Math.min(out.remaining(), free), capacity - index);
+
+            int limit = out.limit();
+            out.limit(out.position() + chunk);
+            outData.position(index);
+            outData.put(out);
+            out.limit(limit);
+
+            written += chunk;
+            LONG.setRelease(map, outRing + WRITE, written);
+        }
+
+        out.clear();
+    }
+
+    @Override
+    public ByteBuffer input(int bytes) throws IOException {
+        if (in.remaining() >= bytes)
+            return in;
+
+        if (in.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(grow(in.capacity(), bytes));
+            larger.put(in);
+            in = larger;
+        } else {
+            in.compact();
+        }
+
+        int waits = 0;
+        while (in.position() < bytes) {
+            boolean closed = isClosed(inRing);
+            long available = (long) LONG.getAcquire(map, inRing + WRITE) - read;
+            if (available == 0) {
+                // the flag is read first, so everything that was sent before closing has been read
+                if (closed)
+                    throw new EOFException("Connection closed");
+                backOff(waits++);
+                continue;
+            }
+            waits = 0;
+
+            int index = (int) (read % capacity);
+            int chunk = (int) Math.min(Math.min(available, in.remaining()), capacity - index);
+
+            inData.limit(index + chunk);
+            inData.position(index);
+            in.put(inData);
+            inData.limit(capacity);
+
+            read += chunk;
+            LONG.setRelease(map, inRing + READ, read);
+        }
+
+        in.flip();
+        return in;
+    }
+
+    private boolean isClosed(int ring) {
+        return (int) INT.getAcquire(map, ring + CLOSED) != 0;
+    }
+
+    private static void backOff(int waits) {
+        if (waits < SPINS)
+            Thread.onSpinWait();
+        else if (waits < SPINS + YIELDS)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(PARK_NANOS);
+    }
+
+    private static int grow(int capacity, int bytes) {
+        while (capacity < bytes)
+            capacity *= 2;
+        return capacity;
+    }
+
+    /**
+     * Tells the other side that nothing more will be sent, the server also removes the file
+     */
+    @Override
+    public void close() throws IOException {
+        INT.setRelease(map, outRing + CLOSED, 1);
+        if (server)
+            Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,86 @@
+package wire;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Transport over a blocking socket channel, with direct buffers so the channel does not copy them.
+ * The buffers only grow, to the largest message that was sent or received.
+ */
+public class SocketTransport implements Transport {
+
+    private static final int INITIAL_SIZE = 1 << 12;
+
+    private final SocketChannel channel;
+
+    private ByteBuffer in, out;
+
+    public SocketTransport(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(true);
+        channel.socket().setTcpNoDelay(true);
+
+        this.in = ByteBuffer.allocateDirect(INITIAL_SIZE);
+        this.in.flip();
+        this.out = ByteBuffer.allocateDirect(INITIAL_SIZE);
+    }
+
+    public static SocketTransport connect(String host, int port) throws IOException {
+        return new SocketTransport(SocketChannel.open(new InetSocketAddress(host, port)));
+    }
+
+
+    @Override
+    public ByteBuffer output(int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            flush();
+            if (out.capacity() < bytes)
+                out = ByteBuffer.allocateDirect(grow(out.capacity(), bytes));
+        }
+        return out;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining())
+            channel.write(out);
+        out.clear();
+    }
+
+    @Override
+    public ByteBuffer input(int bytes) throws IOException {
+        if (in.remaining() >= bytes)
+            return in;
+
+        if (in.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(grow(in.capacity(), bytes));
+            larger.put(in);
+            in = larger;
+        } else {
+            in.compact();
+        }
+
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0)
+                throw new EOFException("Connection closed");
+        }
+
+        in.flip();
+        return in;
+    }
+
+    private static int grow(int capacity, int bytes) {
+        while (capacity < bytes)
+            capacity *= 2;
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,34 @@
+package wire;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A connection between a client and a server of the wire protocol, with buffers that are reused for every call.
+ * <p>
+ * Writes go to the output buffer and are only sent on flush, so calls without a return value can be
+ * collected and sent together with the next call that has one.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * @param bytes The number of bytes that will be written
+     * @return The output buffer, with room for at least the given number of bytes
+     */
+    ByteBuffer output(int bytes) throws IOException;
+
+    /**
+     * Sends everything that was written to the output buffer.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Waits until the given number of bytes has been received.
+     *
+     * @param bytes The number of bytes that will be read
+     * @return The input buffer, with at least the given number of bytes left to read
+     * @throws java.io.EOFException If the other side closed the connection first
+     */
+    ByteBuffer input(int bytes) throws IOException;
+}
@@ -0,0 +1,142 @@
+package wire;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import interfaces.AutopilotConfig;
+import interfaces.AutopilotConfigBufferReader;
+import interfaces.AutopilotConfigBufferWriter;
+import interfaces.AutopilotInputs;
+import interfaces.AutopilotInputsBufferWriter;
+import interfaces.AutopilotInputsView;
+import interfaces.AutopilotOutputs;
+import interfaces.AutopilotOutputsBufferWriter;
+import interfaces.AutopilotOutputsView;
+import utils.MutableInputs;
+import utils.MutableOutputs;
+
+/**
+ * Method indices and encoding of the datatypes of the wire protocol in p_en_o_cw_2017/wireprotocol.md,
+ * with the generated buffer codecs on the reused buffers of the transport.
+ * <p>
+ * The methods that are called every tick do not allocate. The inputs and outputs are read into
+ * the given mutable instances, or viewed in the buffer when they are used before the next read.
+ */
+public final class Wire {
+
+    /* Methods of Autopilot, in the order of the interface */
+    public static final byte SIMULATION_STARTED = 0;
+    public static final byte TIME_PASSED = 1;
+    public static final byte AUTOPILOT_ENDED = 2;
+
+    /* Methods of AutopilotModule, in the order of the interface */
+    public static final byte DEFINE_AIRPORT_PARAMS = 0;
+    public static final byte DEFINE_AIRPORT = 1;
+    public static final byte DEFINE_DRONE = 2;
+    public static final byte START_TIME_HAS_PASSED = 3;
+    public static final byte COMPLETE_TIME_HAS_PASSED = 4;
+    public static final byte DELIVER_PACKAGE = 5;
+    public static final byte MODULE_ENDED = 6;
+
+    /**
+     * Extension for BulkAutopilotModule: the number of drones, the drone ids and the states of all drones
+     * in one frame, the server answers with the outputs of all drones in the same order
+     */
+    public static final byte TIME_HAS_PASSED = 7;
+
+    /**
+     * Image length and x, y, z, heading, pitch, roll, elapsed time
+     */
+    public static final int INPUTS_SIZE = 4 + 7 * 4;
+
+    public static final int OUTPUTS_SIZE = 8 * 4;
+
+    /**
+     * The configuration after the drone id: 22 floats and 2 ints
+     */
+    private static final int CONFIG_SIZE = 22 * 4 + 2 * 4;
+
+
+    private Wire() {
+    }
+
+
+    public static void writeConfig(Transport transport, AutopilotConfig config) throws IOException {
+        AutopilotConfigBufferWriter.write(transport.output(AutopilotConfigBufferWriter.size(config)), config);
+    }
+
+    public static AutopilotConfig readConfig(Transport transport) throws IOException {
+        ByteBuffer in = transport.input(2);
+        return AutopilotConfigBufferReader.read(transport.input(2 + (in.getShort(in.position()) & 0xffff)
+                + CONFIG_SIZE));
+    }
+
+    /**
+     * A missing image is sent as an empty one
+     */
+    public static void writeInputs(Transport transport, AutopilotInputs inputs) throws IOException {
+        AutopilotInputsBufferWriter.write(transport.output(AutopilotInputsBufferWriter.size(inputs)), inputs);
+    }
+
+    /**
+     * Reads the inputs into the given instance. The image is copied into the image of the previous inputs
+     * if the size did not change, an empty image becomes null.
+     */
+    public static MutableInputs readInputs(Transport transport, MutableInputs inputs) throws IOException {
+        int length = transport.input(4).getInt();
+        ByteBuffer in = transport.input(length + INPUTS_SIZE - 4);
+
+        byte[] image = null;
+        if (length > 0) {
+            image = inputs.getImage();
+            if (image == null || image.length != length)
+                image = new byte[length];
+            in.get(image);
+        }
+
+        return inputs.set(image, in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat(),
+                in.getFloat(), in.getFloat());
+    }
+
+    /**
+     * Views the inputs in the input buffer of the transport, the image is only read if it is asked for.
+     * The view is valid until the next read from the transport.
+     */
+    public static AutopilotInputsView viewInputs(Transport transport, AutopilotInputsView view) throws IOException {
+        ByteBuffer in = transport.input(4);
+        in = transport.input(in.getInt(in.position()) + INPUTS_SIZE);
+
+        view.wrap(in, in.position());
+        in.position(in.position() + view.encodedSize());
+        return view;
+    }
+
+    public static void writeOutputs(Transport transport, AutopilotOutputs outputs) throws IOException {
+        AutopilotOutputsBufferWriter.write(transport.output(OUTPUTS_SIZE), outputs);
+    }
+
+    /**
+     * Views the outputs in the input buffer of the transport, valid until the next read from the transport.
+     */
+    public static AutopilotOutputsView viewOutputs(Transport transport, AutopilotOutputsView view)
+            throws IOException {
+        ByteBuffer in = transport.input(OUTPUTS_SIZE);
+
+        view.wrap(in, in.position());
+        in.position(in.position() + OUTPUTS_SIZE);
+        return view;
+    }
+
+    public static MutableOutputs readOutputs(Transport transport, MutableOutputs outputs) throws IOException {
+        ByteBuffer in = transport.input(OUTPUTS_SIZE);
+        float thrust = in.getFloat();
+        float lwIncl = in.getFloat();
+        float rwIncl = in.getFloat();
+        float horStabIncl = in.getFloat();
+        float verStabIncl = in.getFloat();
+        float fBrake = in.getFloat();
+        float lBrake = in.getFloat();
+        float rBrake = in.getFloat();
+        return outputs.set(lwIncl, rwIncl, verStabIncl, horStabIncl, thrust, lBrake, fBrake, rBrake);
+    }
+}